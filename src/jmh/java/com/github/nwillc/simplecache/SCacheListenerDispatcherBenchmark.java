@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import com.github.nwillc.simplecache.configuration.SEventOverflow;
+import com.github.nwillc.simplecache.spi.SCachingProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.event.CacheEntryUpdatedListener;
+import javax.cache.event.EventType;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many events per second reach a listener that does a fixed amount of work per event, as the number of
+ * dispatch partitions grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SCacheListenerDispatcherBenchmark {
+	private static final int EVENTS = 1024;
+	private static final long WORK = 1000L;
+
+	@Param({"1", "2", "4", "8"})
+	private int partitions;
+
+	private CacheManager cacheManager;
+	private ExecutorService executor;
+	private SCacheListenerDispatcher<Long, Long> dispatcher;
+	private volatile CountDownLatch delivered;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		cacheManager = Caching.getCachingProvider(SCachingProvider.class.getCanonicalName()).getCacheManager();
+		Cache<Long, Long> cache = cacheManager.createCache(getClass().getSimpleName(), new MutableConfiguration<>());
+		executor = Executors.newFixedThreadPool(partitions);
+		dispatcher = new SCacheListenerDispatcher<>(cache, Optional.empty(), 0L, EVENTS, SEventOverflow.BLOCK,
+				Long.MAX_VALUE, Optional.empty(), false, executor, partitions);
+		dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryUpdatedListener<Long, Long>) events -> events.forEach(event -> {
+					Blackhole.consumeCPU(WORK);
+					delivered.countDown();
+				}), null, false, false));
+	}
+
+	@TearDown
+	public void tearDown() {
+		dispatcher.close();
+		executor.shutdownNow();
+		cacheManager.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(EVENTS)
+	public void dispatch() throws InterruptedException {
+		delivered = new CountDownLatch(EVENTS);
+		for (long key = 0; key < EVENTS; key++) {
+			dispatcher.event(EventType.UPDATED, key, key, null);
+		}
+		delivered.await();
+	}
+}
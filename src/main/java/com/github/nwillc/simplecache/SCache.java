@@ -9,64 +9,121 @@
 package com.github.nwillc.simplecache;
 
 
+import com.github.nwillc.simplecache.configuration.SCacheConfiguration;
+import com.github.nwillc.simplecache.eviction.SEvictionPolicy;
+import com.github.nwillc.simplecache.eviction.STinyLfuEvictionPolicy;
 import com.github.nwillc.simplecache.managment.SCacheStatisticsMXBean;
 import com.github.nwillc.simplecache.processor.SMutableEntry;
+import com.github.nwillc.simplecache.serialization.SBinarySerializer;
+import com.github.nwillc.simplecache.serialization.SImmutableTypes;
+import com.github.nwillc.simplecache.serialization.SSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.cache.Cache;
 import javax.cache.CacheException;
 import javax.cache.CacheManager;
 import javax.cache.configuration.CacheEntryListenerConfiguration;
+import javax.cache.configuration.CompleteConfiguration;
 import javax.cache.configuration.Configuration;
-import javax.cache.configuration.Factory;
-import javax.cache.configuration.MutableConfiguration;
 import javax.cache.event.EventType;
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.EternalExpiryPolicy;
 import javax.cache.expiry.ExpiryPolicy;
 import javax.cache.integration.CacheLoader;
+import javax.cache.integration.CacheLoaderException;
 import javax.cache.integration.CacheWriter;
 import javax.cache.integration.CompletionListener;
 import javax.cache.processor.EntryProcessor;
 import javax.cache.processor.EntryProcessorException;
 import javax.cache.processor.EntryProcessorResult;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
-import static com.github.nwillc.simplecache.SObjectCloner.deepCopy;
-
 public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
-	private final ConcurrentMap<K, SExpiryData> expiry = new ConcurrentHashMap<>();
-	private final ConcurrentMap<K, V> data = new ConcurrentHashMap<>();
+	private static final Logger LOGGER = LoggerFactory.getLogger(SCache.class);
+	private final ConcurrentMap<K, SRecord> data = new ConcurrentHashMap<>();
+	private final ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+	private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
 	private final CacheManager cacheManager;
 	private final String name;
-	private final MutableConfiguration<K, V> configuration;
+	private final SCacheConfiguration<K, V> configuration;
 	private final Optional<CacheLoader<K, V>> loader;
 	private final Optional<CacheWriter<? super K, ? super V>> writer;
-	private final Factory<SExpiryData> expiryDataFactory;
+	private final ExpiryPolicy expiryPolicy;
 	private final Optional<SCacheStatisticsMXBean> statistics;
 	private final AtomicBoolean closed = new AtomicBoolean(true);
 	private final SCacheListenerDispatcher<K, V> eventListenerDispatcher;
-	private Supplier<Long> clock = System::nanoTime;
+	private final Optional<SEvictionPolicy<K>> evictionPolicy;
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private final Optional<STimingWheel> expirySweeper;
+	private final SSerializer serializer;
+	private final SImmutableTypes immutableTypes;
+	private final boolean storeSerialized;
+	private final Executor executor;
+	private final List<ExecutorService> ownedExecutors = new ArrayList<>(2);
+	private final long refreshNanos;
+	private final Optional<SWriteBehind<K, V>> writeBehind;
+	private LongSupplier clock;
 
 	@SuppressWarnings("unchecked")
 	public SCache(CacheManager cacheManager, String name, Configuration<K, V> configuration) {
 		this.cacheManager = cacheManager;
 		this.name = name;
-		this.configuration = new MutableConfiguration<>((MutableConfiguration) configuration);
+		this.configuration = new SCacheConfiguration<>((CompleteConfiguration<K, V>) configuration);
 		loader = Optional.ofNullable(this.configuration.getCacheLoaderFactory() == null ?
 				null : this.configuration.getCacheLoaderFactory().create());
 		writer = Optional.ofNullable(this.configuration.getCacheWriterFactory() == null ?
 				null : this.configuration.getCacheWriterFactory().create());
-		expiryDataFactory = (Factory<SExpiryData>) () ->
-				new SExpiryData(clock, (ExpiryPolicy) ((MutableConfiguration) configuration).getExpiryPolicyFactory().create());
-		statistics = ((MutableConfiguration) configuration).isStatisticsEnabled() ?
+		expiryPolicy = this.configuration.getExpiryPolicyFactory().create();
+		statistics = this.configuration.isStatisticsEnabled() ?
 				Optional.of(new SCacheStatisticsMXBean()) : Optional.empty();
-		eventListenerDispatcher = new SCacheListenerDispatcher<>(this);
+		evictionPolicy = !this.configuration.isBounded() ? Optional.empty() :
+				Optional.of(this.configuration.getEvictionPolicyFactory() == null ?
+						new STinyLfuEvictionPolicy<>(this.configuration.getMaximumSize()) : this.configuration.getEvictionPolicyFactory().create());
+		serializer = this.configuration.getSerializerFactory() == null ?
+				new SBinarySerializer() : this.configuration.getSerializerFactory().create();
+		immutableTypes = new SImmutableTypes(this.configuration.getImmutableTypes());
+		storeSerialized = this.configuration.isStoreByValue() && this.configuration.isStoreSerialized();
+		executor = this.configuration.getExecutorFactory() == null ?
+				ForkJoinPool.commonPool() : owned(this.configuration.getExecutorFactory().create());
+		refreshNanos = loader.isPresent() ? nanos(this.configuration.getRefreshAfterWrite()) : 0L;
+		writeBehind = !(writer.isPresent() && this.configuration.isWriteBehind() && cacheManager instanceof SCacheManager) ?
+				Optional.empty() : Optional.of(new SWriteBehind<>(writer.get(), this.configuration.getWriteBehindBatchSize(),
+				nanos(this.configuration.getWriteBehindDelay()), ((SCacheManager) cacheManager).getScheduler(), executor, statistics,
+				Optional.ofNullable(this.configuration.getWriteBehindListenerFactory() == null ?
+						null : this.configuration.getWriteBehindListenerFactory().create())));
+		clock = cacheManager instanceof SCacheManager ? ((SCacheManager) cacheManager).getClock() : System::nanoTime;
+		expirySweeper = expiryPolicy instanceof EternalExpiryPolicy || !(cacheManager instanceof SCacheManager) ?
+				Optional.empty() : Optional.of(((SCacheManager) cacheManager).getExpiryWheel());
+		eventListenerDispatcher = cacheManager instanceof SCacheManager ?
+				new SCacheListenerDispatcher<>(this, Optional.of(((SCacheManager) cacheManager).getScheduler()),
+						((SCacheManager) cacheManager).getEventDispatchMillis(), this.configuration.getEventQueueCapacity(),
+						this.configuration.getEventOverflow(), this.configuration.getEventBlockTimeout().getTimeUnit()
+						.toMillis(this.configuration.getEventBlockTimeout().getDurationAmount()), statistics,
+						this.configuration.isCoalesceEvents(), listenerExecutor(), this.configuration.getEventPartitions()) :
+				new SCacheListenerDispatcher<>(this, Optional.empty(), 0L);
 		closed.set(false);
 	}
 
@@ -74,28 +131,111 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 	public V get(K key) {
 		exceptionIfClosed();
 		statistics.ifPresent(SCacheStatisticsMXBean::get);
-		expiryCheck(key);
-		V value = data.get(key);
-		if (value == null) {
+		SRecord record = lookup(key);
+		if (record == null) {
 			statistics.ifPresent(SCacheStatisticsMXBean::miss);
-			value = readThrough(key);
-		} else {
+			return readThrough(key);
+		}
+		statistics.ifPresent(SCacheStatisticsMXBean::hit);
+		return hit(key, record);
+	}
+
+	/**
+	 * Get a value without blocking on the CacheLoader. A hit completes on the calling thread, a miss is read through
+	 * on the cache's executor, sharing any load of the key already in flight.
+	 *
+	 * @param key the key
+	 * @return a future of the value, or of null if there is none
+	 */
+	public CompletableFuture<V> getAsync(K key) {
+		exceptionIfClosed();
+		statistics.ifPresent(SCacheStatisticsMXBean::get);
+		SRecord record = lookup(key);
+		if (record != null) {
 			statistics.ifPresent(SCacheStatisticsMXBean::hit);
+			return completed(() -> hit(key, record));
 		}
-		expiry.compute(key, (k, v) -> v == null ? expiryDataFactory.create() : v.access());
-		return value;
+		statistics.ifPresent(SCacheStatisticsMXBean::miss);
+		if (!readsThrough()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		CompletableFuture<V> flight = new CompletableFuture<>();
+		CompletableFuture<V> inFlight = loading.putIfAbsent(key, flight);
+		if (inFlight != null) {
+			return inFlight.thenApply(Function.identity());
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					loadClaimed(key, flight);
+				} catch (RuntimeException ignored) {
+					// The flight carries the failure
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			loading.remove(key, flight);
+			flight.completeExceptionally(e);
+		}
+		return flight.thenApply(Function.identity());
 	}
 
 	@Override
 	public Map<K, V> getAll(Set<? extends K> keys) {
-		Map<K, V> retMap = new HashMap<>();
-		keys.forEach(k -> {
-			V value = get(k);
-			if (value != null) {
-				retMap.put(k, value);
+		exceptionIfClosed();
+		List<K> missing = new ArrayList<>();
+		Map<K, V> retMap = getPresent(keys, missing);
+		if (!missing.isEmpty()) {
+			retMap.putAll(readThroughAll(missing));
+		}
+		return retMap;
+	}
+
+	/**
+	 * Get values without blocking on the CacheLoader. If every key hits the future completes on the calling thread,
+	 * otherwise the missing keys are read through on the cache's executor.
+	 *
+	 * @param keys the keys
+	 * @return a future of the values found
+	 */
+	public CompletableFuture<Map<K, V>> getAllAsync(Set<? extends K> keys) {
+		exceptionIfClosed();
+		List<K> missing = new ArrayList<>();
+		Map<K, V> retMap = getPresent(keys, missing);
+		if (missing.isEmpty() || !readsThrough()) {
+			return CompletableFuture.completedFuture(retMap);
+		}
+		return CompletableFuture.supplyAsync(() -> {
+			retMap.putAll(readThroughAll(missing));
+			return retMap;
+		}, executor);
+	}
+
+	// The values of the keys present, adding those absent to missing.
+	private Map<K, V> getPresent(Set<? extends K> keys, List<K> missing) {
+		Map<K, V> present = new HashMap<>();
+		for (K key : keys) {
+			SRecord record = lookup(key);
+			if (record == null) {
+				missing.add(key);
+			} else {
+				present.put(key, hit(key, record));
 			}
+		}
+		statistics.ifPresent(s -> {
+			s.get(keys.size());
+			s.hit(present.size());
+			s.miss(missing.size());
 		});
-		return retMap;
+		return present;
+	}
+
+	private V hit(K key, SRecord record) {
+		record.access();
+		policyAccess(key);
+		if (refreshNanos > 0 && record.age() > refreshNanos) {
+			refresh(key, record);
+		}
+		return value(record);
 	}
 
 	@Override
@@ -106,83 +246,130 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 
 	@Override
 	public void loadAll(Set<? extends K> keys, boolean replaceExistingValues, CompletionListener completionListener) {
+		exceptionIfClosed();
 		Optional<CompletionListener> listener = Optional.ofNullable(completionListener);
-
-		try { // Should be in another thread
-			for (K key : keys) {
-				if (replaceExistingValues && containsKey(key)) {
-					expire(key);
-				}
-				get(key);
-			}
-		} catch (Exception e) {
-			listener.ifPresent(l -> l.onException(e));
+		if (!loader.isPresent()) {
+			listener.ifPresent(CompletionListener::onCompletion);
 			return;
 		}
-
-		listener.ifPresent(CompletionListener::onCompletion);
+		List<K> pending = new ArrayList<>(keys);
+		int batchSize = configuration.getLoadBatchSize();
+		CompletableFuture<?>[] batches = new CompletableFuture<?>[(pending.size() + batchSize - 1) / batchSize];
+		for (int i = 0; i < batches.length; i++) {
+			List<K> batch = pending.subList(i * batchSize, Math.min(pending.size(), (i + 1) * batchSize));
+			batches[i] = CompletableFuture.runAsync(() -> loadBatch(batch, replaceExistingValues), executor);
+		}
+		CompletableFuture.allOf(batches).whenComplete((ignored, throwable) -> {
+			if (throwable == null) {
+				listener.ifPresent(CompletionListener::onCompletion);
+			} else {
+				Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+				Exception exception = cause instanceof Exception ? (Exception) cause : new CacheLoaderException(cause);
+				listener.ifPresent(l -> l.onException(exception));
+			}
+		});
 	}
 
 	@Override
 	public void put(K key, V value) {
-		getAndPut(key, value);
+		exceptionIfClosed();
+		requireNonNull(key, value);
+		statistics.ifPresent(SCacheStatisticsMXBean::get);
+		put(key, value, eventListenerDispatcher.isOldValueRequired());
 	}
 
 	@Override
 	public V getAndPut(K key, V value) {
 		exceptionIfClosed();
+		requireNonNull(key, value);
 		statistics.ifPresent(SCacheStatisticsMXBean::get);
+		return put(key, value, true);
+	}
+
+	// Store a value, capturing the old one only when the caller or a listener needs it.
+	private V put(K key, V value, boolean captureOld) {
 		statistics.ifPresent(SCacheStatisticsMXBean::put);
-        if (configuration.isStoreByValue()) {
-            try {
-                key = deepCopy(key);
-                value = deepCopy(value);
-            } catch (Exception e) {
-                throw new CacheException("Unable to copy key/value.", e);
-            }
-        }
-		expiryCheck(key);
-		V old = data.put(key, value);
-		eventListenerDispatcher.event(old == null ? EventType.CREATED : EventType.UPDATED, key, value, old);
-		writeThrough(key, value);
-		expiry.compute(key, (k, v) -> v == null ? expiryDataFactory.create() : v.update());
-		return old;
+		final K k = copy(key);
+		final V v = copyValue(value);
+		final Object stored = encode(v);
+		Outcome<V> outcome = store(k, stored, captureOld);
+		try {
+			writeThrough(k, v);
+			eventListenerDispatcher.event(outcome.changed ? EventType.UPDATED : EventType.CREATED, k, v, outcome.old);
+		} finally {
+			evictIfNeeded();
+		}
+		return outcome.old;
 	}
 
 	@Override
 	public void putAll(Map<? extends K, ? extends V> map) {
-		map.forEach(this::put);
+		exceptionIfClosed();
+		map.forEach(SCache::requireNonNull);
+		statistics.ifPresent(s -> s.put(map.size()));
+		Map<K, V> created = new HashMap<>();
+		List<Runnable> updated = new ArrayList<>();
+		List<Entry<? extends K, ? extends V>> written = new ArrayList<>(map.size());
+		final boolean captureOld = eventListenerDispatcher.isOldValueRequired();
+		map.forEach((key, value) -> {
+			final K k = copy(key);
+			final V v = copyValue(value);
+			final Object stored = encode(v);
+			Outcome<V> outcome = store(k, stored, captureOld);
+			if (!outcome.changed) {
+				created.put(k, v);
+			} else {
+				updated.add(() -> eventListenerDispatcher.event(EventType.UPDATED, k, v, outcome.old));
+			}
+			written.add(new SEntry<>(k, v));
+		});
+		try {
+			writeThroughAll(written);
+			updated.forEach(Runnable::run);
+			eventListenerDispatcher.events(EventType.CREATED, created);
+		} finally {
+			evictIfNeeded();
+		}
 	}
 
 	@Override
 	public boolean putIfAbsent(K key, V value) {
 		exceptionIfClosed();
-        if (configuration.isStoreByValue()) {
-            try {
-                key = deepCopy(key);
-                value = deepCopy(value);
-            } catch (Exception e) {
-                throw new CacheException("Unable to copy key/value.", e);
-            }
-        }
-		boolean wasPut = data.putIfAbsent(key, value) == null;
-		if (wasPut) {
+		requireNonNull(key, value);
+		final K k = copy(key);
+		final V v = copyValue(value);
+		final Object stored = encode(v);
+		Outcome<V> outcome = new Outcome<>();
+		data.compute(k, (ignored, record) -> {
+			if (record == null || outcome.expired(record)) {
+				outcome.changed = true;
+				return admit(k, record, stored, outcome);
+			}
+			return record;
+		});
+		if (outcome.expired) {
+			evicted(k);
+		}
+		if (outcome.changed) {
 			statistics.ifPresent(SCacheStatisticsMXBean::put);
-			eventListenerDispatcher.event(EventType.CREATED, key, value, null);
-			writeThrough(key, value);
-			expiry.put(key, expiryDataFactory.create());
+			try {
+				writeThrough(k, v);
+				eventListenerDispatcher.event(EventType.CREATED, k, v, null);
+			} finally {
+				evictIfNeeded();
+			}
 		}
-		return wasPut;
+		return outcome.changed;
 	}
 
 	@Override
 	public boolean remove(K key) {
 		exceptionIfClosed();
-		boolean wasRemoved = data.remove(key) != null;
+		Objects.requireNonNull(key, "Key can not be null.");
+		boolean wasRemoved = discard(key, null);
 		if (wasRemoved) {
 			statistics.ifPresent(SCacheStatisticsMXBean::remove);
 			removeThrough(key);
-			expiry.remove(key);
 		}
 		return wasRemoved;
 	}
@@ -190,17 +377,27 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 	@Override
 	public boolean remove(K key, V oldValue) {
 		exceptionIfClosed();
-		boolean wasRemoved = data.remove(key, oldValue);
-		if (wasRemoved) {
+		requireNonNull(key, oldValue);
+		Outcome<V> outcome = new Outcome<>();
+		data.computeIfPresent(key, (ignored, record) -> {
+			if (value(record).equals(oldValue)) {
+				outcome.changed = true;
+				policyRemove(key);
+				record.cancelSweep();
+				return null;
+			}
+			return record;
+		});
+		if (outcome.changed) {
 			statistics.ifPresent(SCacheStatisticsMXBean::remove);
 			removeThrough(key);
-			expiry.remove(key);
 		}
-		return wasRemoved;
+		return outcome.changed;
 	}
 
 	@Override
 	public V getAndRemove(K key) {
+		Objects.requireNonNull(key, "Key can not be null.");
 		V value = get(key);
 		remove(key);
 		return value;
@@ -209,63 +406,83 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 	@Override
 	public boolean replace(K key, V oldValue, V newValue) {
 		exceptionIfClosed();
-        if (configuration.isStoreByValue()) {
-            try {
-                key = deepCopy(key);
-                newValue = deepCopy(newValue);
-            } catch (Exception e) {
-                throw new CacheException("Unable to copy key/value.", e);
-            }
-        }
-		boolean wasPut = data.replace(key, oldValue, newValue);
-		if (wasPut) {
-			writeThrough(key, newValue);
-			expiry.get(key).update();
-		}
-		return wasPut;
+		requireNonNull(key, oldValue);
+		Objects.requireNonNull(newValue, "Value can not be null.");
+		final K k = copy(key);
+		final V v = copyValue(newValue);
+		final Object stored = encode(v);
+		Outcome<V> outcome = new Outcome<>();
+		data.computeIfPresent(k, (ignored, record) -> {
+			if (value(record).equals(oldValue)) {
+				outcome.changed = true;
+				policyAdd(k);
+				return record.update(stored);
+			}
+			return record;
+		});
+		if (outcome.changed) {
+			writeThrough(k, v);
+		}
+		return outcome.changed;
 	}
 
 	@Override
 	public boolean replace(K key, V value) {
 		exceptionIfClosed();
-        if (configuration.isStoreByValue()) {
-            try {
-                key = deepCopy(key);
-                value = deepCopy(value);
-            } catch (Exception e) {
-                throw new CacheException("Unable to copy key/value.", e);
-            }
-        }
-		boolean wasPut = data.replace(key, value) != null;
-		if (wasPut) {
-			writeThrough(key, value);
-			expiry.get(key).update();
-		}
-		return wasPut;
+		requireNonNull(key, value);
+		final K k = copy(key);
+		final V v = copyValue(value);
+		final Object stored = encode(v);
+		Outcome<V> outcome = new Outcome<>();
+		data.computeIfPresent(k, (ignored, record) -> {
+			outcome.changed = true;
+			policyAdd(k);
+			return record.update(stored);
+		});
+		if (outcome.changed) {
+			writeThrough(k, v);
+		}
+		return outcome.changed;
 	}
 
 	@Override
 	public V getAndReplace(K key, V value) {
 		exceptionIfClosed();
-		expiryCheck(key);
-		expiry.computeIfPresent(key, (k, v) -> {
+		requireNonNull(key, value);
+		final K k = copy(key);
+		final V v = copyValue(value);
+		final Object stored = encode(v);
+		Outcome<V> outcome = new Outcome<>();
+		data.computeIfPresent(k, (ignored, record) -> {
+			if (outcome.expired(record)) {
+				policyRemove(k);
+				record.cancelSweep();
+				return null;
+			}
 			statistics.ifPresent(SCacheStatisticsMXBean::get);
-			return v.update();
+			policyAdd(k);
+			outcome.old = value(record);
+			return record.update(stored);
 		});
-        if (configuration.isStoreByValue()) {
-            try {
-                key = deepCopy(key);
-                value = deepCopy(value);
-            } catch (Exception e) {
-                throw new CacheException("Unable to copy key/value.", e);
-            }
-        }
-		return data.replace(key, value);
+		if (outcome.expired) {
+			evicted(k);
+		}
+		return outcome.old;
 	}
 
 	@Override
 	public void removeAll(Set<? extends K> keys) {
-		keys.forEach(this::remove);
+		exceptionIfClosed();
+		keys.forEach(key -> Objects.requireNonNull(key, "Key can not be null."));
+		List<K> removed = new ArrayList<>();
+		for (K key : keys) {
+			if (discard(key, null)) {
+				removed.add(key);
+			}
+		}
+		statistics.ifPresent(s -> s.remove(removed.size()));
+		removeThroughAll(removed);
+		eventListenerDispatcher.events(EventType.REMOVED, removed);
 	}
 
 	@Override
@@ -276,8 +493,18 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 
 	@Override
 	public void clear() {
-		data.clear();
-		expiry.clear();
+		data.values().removeIf(record -> {
+			record.cancelSweep();
+			return true;
+		});
+		if (evictionPolicy.isPresent()) {
+			evictionLock.lock();
+			try {
+				evictionPolicy.get().clear();
+			} finally {
+				evictionLock.unlock();
+			}
+		}
 	}
 
 	@Override
@@ -309,6 +536,46 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 		return resultMap;
 	}
 
+	/**
+	 * Put a value without blocking on a write through CacheWriter. Without one the put completes on the calling thread.
+	 *
+	 * @param key the key
+	 * @param value the value
+	 * @return a future completed once the value is stored and written
+	 */
+	public CompletableFuture<Void> putAsync(K key, V value) {
+		return async(writesThrough(), () -> {
+			put(key, value);
+			return null;
+		});
+	}
+
+	/**
+	 * Remove a key without blocking on a write through CacheWriter. Without one the remove completes on the calling
+	 * thread.
+	 *
+	 * @param key the key
+	 * @return a future of whether the key was removed
+	 */
+	public CompletableFuture<Boolean> removeAsync(K key) {
+		return async(writesThrough(), () -> remove(key));
+	}
+
+	/**
+	 * Invoke an EntryProcessor without blocking on the CacheLoader or CacheWriter. When neither may be called the
+	 * processor runs on the calling thread.
+	 *
+	 * @param key the key
+	 * @param entryProcessor the processor
+	 * @param arguments the processor's arguments
+	 * @param <T> the processor's result type
+	 * @return a future of the processor's result
+	 */
+	public <T> CompletableFuture<T> invokeAsync(K key, EntryProcessor<K, V, T> entryProcessor, Object... arguments) {
+		return async(writesThrough() || (readsThrough() && lookup(key) == null),
+				() -> invoke(key, entryProcessor, arguments));
+	}
+
 	@Override
 	public String getName() {
 		return name;
@@ -325,7 +592,10 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 			if (!cacheManager.isClosed()) {
 				cacheManager.destroyCache(name);
 			}
+			writeBehind.ifPresent(SWriteBehind::close);
+			eventListenerDispatcher.close();
 			clear();
+			ownedExecutors.forEach(ExecutorService::shutdown);
 		}
 	}
 
@@ -355,7 +625,28 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 
 	@Override
 	public Iterator<Entry<K, V>> iterator() {
-		return data.entrySet().stream().map(e -> (Entry<K, V>) new SEntry<>(e)).iterator();
+		return data.entrySet().stream().map(e -> (Entry<K, V>) new SEntry<>(e.getKey(), value(e.getValue()))).iterator();
+	}
+
+	// Listeners run on the configured executor, else virtual threads if asked for and available, else the manager's
+	// listener threads. A blocked event waiting on the cache executor's own threads could otherwise never drain.
+	private Executor listenerExecutor() {
+		if (configuration.getListenerExecutorFactory() != null) {
+			return owned(configuration.getListenerExecutorFactory().create());
+		}
+		Executor listenerThreads = ((SCacheManager) cacheManager).getListenerExecutor();
+		if (configuration.isListenerVirtualThreads()) {
+			return SVirtualThreads.executor().orElse(listenerThreads);
+		}
+		return listenerThreads;
+	}
+
+	// Executors made by the configured factories belong to the cache, and are shut down when it closes.
+	private Executor owned(Executor created) {
+		if (created instanceof ExecutorService) {
+			ownedExecutors.add((ExecutorService) created);
+		}
+		return created;
 	}
 
 	private void exceptionIfClosed() {
@@ -365,59 +656,491 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 	}
 
 	private V readThrough(K key) {
-		if (!(loader.isPresent() && configuration.isReadThrough())) {
+		if (!readsThrough()) {
 			return null;
 		}
+		CompletableFuture<V> flight = new CompletableFuture<>();
+		CompletableFuture<V> inFlight = loading.putIfAbsent(key, flight);
+		if (inFlight != null) {
+			return await(inFlight);
+		}
+		return loadClaimed(key, flight);
+	}
+
+	// Load a key this thread has claimed the flight for.
+	private V loadClaimed(K key, CompletableFuture<V> flight) {
+		try {
+			// A load that completed after our miss has already stored the value.
+			SRecord record = lookup(key);
+			V value;
+			if (record != null) {
+				value = value(record);
+			} else {
+				statistics.ifPresent(SCacheStatisticsMXBean::readThrough);
+				value = loader.get().load(key);
+				if (value != null) {
+					Outcome<V> outcome = install(key, value, false);
+					if (outcome.changed) {
+						eventListenerDispatcher.event(EventType.CREATED, key, value, null);
+					} else {
+						value = outcome.old;
+					}
+				}
+			}
+			flight.complete(value);
+			return value;
+		} catch (RuntimeException e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(key, flight);
+		}
+	}
+
+	// Wait on another thread's load, failing as it did.
+	private V await(CompletableFuture<V> flight) {
+		try {
+			return flight.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new CacheLoaderException(e.getCause());
+		}
+	}
+
+	// Read through several keys as get does each: keys already loading are awaited, the rest are claimed and loaded
+	// with one loadAll, and values are only installed where absent, raising one batch of CREATED events.
+	private Map<K, V> readThroughAll(List<K> keys) {
+		if (!readsThrough()) {
+			return Collections.emptyMap();
+		}
+		Map<K, CompletableFuture<V>> claimed = new LinkedHashMap<>();
+		Map<K, CompletableFuture<V>> joined = new HashMap<>();
+		for (K key : keys) {
+			CompletableFuture<V> flight = new CompletableFuture<>();
+			CompletableFuture<V> inFlight = loading.putIfAbsent(key, flight);
+			if (inFlight == null) {
+				claimed.put(key, flight);
+			} else {
+				joined.put(key, inFlight);
+			}
+		}
+		Map<K, V> values = new HashMap<>();
+		try {
+			List<K> missing = new ArrayList<>(claimed.size());
+			claimed.forEach((key, flight) -> {
+				// A load that completed after our miss has already stored the value.
+				SRecord record = lookup(key);
+				if (record == null) {
+					missing.add(key);
+				} else {
+					V value = value(record);
+					values.put(key, value);
+					flight.complete(value);
+				}
+			});
+			if (!missing.isEmpty()) {
+				statistics.ifPresent(SCacheStatisticsMXBean::readThrough);
+				Map<K, V> loaded = loader.get().loadAll(missing);
+				Map<K, V> created = new HashMap<>();
+				for (K key : missing) {
+					V value = loaded == null ? null : loaded.get(key);
+					if (value != null) {
+						Outcome<V> outcome = install(key, value, false);
+						if (outcome.changed) {
+							created.put(key, value);
+						} else {
+							value = outcome.old;
+						}
+						values.put(key, value);
+					}
+					claimed.get(key).complete(value);
+				}
+				eventListenerDispatcher.events(EventType.CREATED, created);
+			}
+		} catch (RuntimeException e) {
+			claimed.values().forEach(flight -> flight.completeExceptionally(e));
+			throw e;
+		} finally {
+			claimed.forEach(loading::remove);
+		}
+		joined.forEach((key, flight) -> {
+			V value = await(flight);
+			if (value != null) {
+				values.put(key, value);
+			}
+		});
+		return values;
+	}
+
+	// Reload an aging entry in the background, the current value is served meanwhile. Refreshes are tracked apart
+	// from read through loads so a get never waits on, or fails with, a refresh.
+	private void refresh(K key, SRecord record) {
+		if (!refreshing.add(key)) {
+			return;
+		}
+		long expected = record.writes();
+		try {
+			executor.execute(() -> reload(key, record, expected));
+		} catch (RejectedExecutionException e) {
+			refreshing.remove(key);
+		}
+	}
+
+	// Replace the value only if the entry is unchanged since the refresh started, a later write wins.
+	private void reload(K key, SRecord expectedRecord, long expectedWrites) {
+		try {
+			statistics.ifPresent(SCacheStatisticsMXBean::readThrough);
+			V value = loader.get().load(key);
+			if (value != null) {
+				final K k = copy(key);
+				final V v = copyValue(value);
+				final Object stored = encode(v);
+				Outcome<V> outcome = new Outcome<>();
+				final boolean captureOld = eventListenerDispatcher.isOldValueRequired();
+				data.computeIfPresent(k, (ignored, record) -> {
+					if (record != expectedRecord || record.writes() != expectedWrites) {
+						return record;
+					}
+					outcome.changed = true;
+					if (captureOld) {
+						outcome.old = value(record);
+					}
+					return record.update(stored);
+				});
+				if (outcome.changed) {
+					eventListenerDispatcher.event(EventType.UPDATED, k, v, outcome.old);
+				}
+			}
+		} catch (RuntimeException e) {
+			LOGGER.warn("Refreshing cache entry failed", e);
+		} finally {
+			refreshing.remove(key);
+		}
+	}
+
+	// Run on the executor for each batch of a loadAll.
+	private void loadBatch(List<K> keys, boolean replaceExistingValues) {
+		List<K> missing = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			if (replaceExistingValues || lookup(key) == null) {
+				missing.add(key);
+			}
+		}
+		if (missing.isEmpty()) {
+			return;
+		}
 		statistics.ifPresent(SCacheStatisticsMXBean::readThrough);
-		V value = loader.get().load(key);
-		if (value != null) {
-            if (configuration.isStoreByValue()) {
-                try {
-                    key = deepCopy(key);
-                    value = deepCopy(value);
-                } catch (Exception e) {
-                    throw new CacheException("Unable to copy key/value.", e);
-                }
-            }
-			data.put(key, value);
+		Map<K, V> loaded = loader.get().loadAll(missing);
+		if (loaded != null) {
+			loaded.forEach((key, value) -> {
+				if (value != null) {
+					install(key, value, replaceExistingValues);
+				}
+			});
 		}
+	}
 
-		return value;
+	// Store a loaded value, replacing one already present only when asked to. The outcome is changed if the value was
+	// stored, otherwise it holds the value kept.
+	private Outcome<V> install(K key, V value, boolean replace) {
+		final K k = copy(key);
+		final V v = copyValue(value);
+		final Object stored = encode(v);
+		Outcome<V> outcome = new Outcome<>();
+		data.compute(k, (ignored, record) -> {
+			if (replace || record == null || record.expired()) {
+				outcome.changed = true;
+				return admit(k, record, stored, null);
+			}
+			outcome.old = value(record);
+			return record;
+		});
+		evictIfNeeded();
+		return outcome;
 	}
 
 	private void writeThrough(K key, V value) {
 		if (!(writer.isPresent() && configuration.isWriteThrough())) {
 			return;
 		}
+		if (writeBehind.isPresent()) {
+			writeBehind.get().write(key, value);
+			return;
+		}
 		statistics.ifPresent(SCacheStatisticsMXBean::writeThrough);
 		writer.get().write(new SEntry<>(key, value));
 
 	}
 
+	// The writer is called before listeners, so a listener sees the removal only once the store has it.
 	private void removeThrough(K key) {
+		if (writer.isPresent() && configuration.isWriteThrough()) {
+			if (writeBehind.isPresent()) {
+				writeBehind.get().delete(key);
+			} else {
+				statistics.ifPresent(SCacheStatisticsMXBean::removeThrough);
+				writer.get().delete(key);
+			}
+		}
 		eventListenerDispatcher.event(EventType.REMOVED, key, null, null);
-		if (!(writer.isPresent() && configuration.isWriteThrough())) {
+	}
+
+	@SuppressWarnings("unchecked")
+	private void writeThroughAll(List<Entry<? extends K, ? extends V>> entries) {
+		if (entries.isEmpty() || !(writer.isPresent() && configuration.isWriteThrough())) {
+			return;
+		}
+		if (writeBehind.isPresent()) {
+			entries.forEach(e -> writeBehind.get().write(e.getKey(), e.getValue()));
+			return;
+		}
+		statistics.ifPresent(SCacheStatisticsMXBean::writeThrough);
+		((CacheWriter<K, V>) writer.get()).writeAll(entries);
+	}
+
+	private void removeThroughAll(List<K> keys) {
+		if (keys.isEmpty() || !(writer.isPresent() && configuration.isWriteThrough())) {
+			return;
+		}
+		if (writeBehind.isPresent()) {
+			keys.forEach(writeBehind.get()::delete);
 			return;
 		}
 		statistics.ifPresent(SCacheStatisticsMXBean::removeThrough);
-		writer.get().delete(key);
+		writer.get().deleteAll(keys);
 	}
 
-	private void expiryCheck(K key) {
-		SExpiryData expiryData = expiry.get(key);
-		if (expiryData != null && expiryData.expired()) {
-			expire(key);
+	private <T> T copy(T object) {
+		if (!configuration.isStoreByValue() || immutableTypes.isImmutable(object)) {
+			return object;
+		}
+		try {
+			return serializer.copy(object);
+		} catch (Exception e) {
+			throw new CacheException("Unable to copy key/value.", e);
 		}
 	}
 
-	private void expire(K key) {
-		eventListenerDispatcher.event(EventType.EXPIRED, key, null, null);
+	// A serialized record holds its own copy, so the value need not be copied as well.
+	private V copyValue(V value) {
+		return storeSerialized ? value : copy(value);
+	}
+
+	// The form a value is held in by its record.
+	private Object encode(V value) {
+		if (!storeSerialized || immutableTypes.isImmutable(value)) {
+			return value;
+		}
+		try {
+			return serializer.serialize(value);
+		} catch (Exception e) {
+			throw new CacheException("Unable to serialize value.", e);
+		}
+	}
+
+	// Immutable values are held as is, every other value, including a byte[], is held serialized.
+	@SuppressWarnings("unchecked")
+	private V value(SRecord record) {
+		Object stored = record.getValue();
+		if (!(storeSerialized && stored instanceof byte[])) {
+			return (V) stored;
+		}
+		try {
+			return (V) serializer.deserialize((byte[]) stored);
+		} catch (Exception e) {
+			throw new CacheException("Unable to deserialize value.", e);
+		}
+	}
+
+	private SRecord newRecord(K key, Object stored) {
+		SRecord record = new SRecord(clock, expiryPolicy, stored);
+		if (expirySweeper.isPresent()) {
+			long expiresIn = record.expiresIn();
+			if (expiresIn != SExpiryData.NEVER) {
+				record.setSweep(expirySweeper.get().schedule(() -> sweep(key, record), expiresIn));
+			}
+		}
+		return record;
+	}
+
+	// Run by the expiry sweeper when a record may have expired.
+	private long sweep(K key, SRecord record) {
+		if (data.get(key) != record) {
+			return -1L;
+		}
+		if (!record.expired()) {
+			long expiresIn = record.expiresIn();
+			return expiresIn == SExpiryData.NEVER ? -1L : Math.max(0L, expiresIn);
+		}
+		if (discard(key, record)) {
+			evicted(key);
+		}
+		return -1L;
+	}
+
+	// Store a value, flagging the outcome changed if it replaced a live record and capturing the old value if asked.
+	private Outcome<V> store(K k, Object stored, boolean captureOld) {
+		Outcome<V> outcome = new Outcome<>();
+		data.compute(k, (ignored, record) -> {
+			if (record == null || outcome.expired(record)) {
+				return admit(k, record, stored, outcome);
+			}
+			policyAdd(k);
+			outcome.changed = true;
+			if (captureOld) {
+				outcome.old = value(record);
+			}
+			return record.update(stored);
+		});
+		if (outcome.expired) {
+			evicted(k);
+		}
+		return outcome;
+	}
+
+	// Called within a map compute, replacing any record present, possibly an expired one.
+	private SRecord admit(K key, SRecord replaced, Object stored, Outcome<V> outcome) {
+		if (replaced != null) {
+			replaced.cancelSweep();
+		}
+		if (outcome != null && outcome.expired) {
+			policyRemove(key);
+		}
+		policyAdd(key);
+		return newRecord(key, stored);
+	}
+
+	private SRecord lookup(K key) {
+		SRecord record = data.get(key);
+		if (record != null && record.expired()) {
+			if (discard(key, record)) {
+				evicted(key);
+			}
+			return null;
+		}
+		return record;
+	}
+
+	// Remove the key if mapped, to the given record if not null.
+	private boolean discard(K key, SRecord expected) {
+		Outcome<V> outcome = new Outcome<>();
+		data.computeIfPresent(key, (k, record) -> {
+			if (expected != null && record != expected) {
+				return record;
+			}
+			outcome.changed = true;
+			policyRemove(k);
+			record.cancelSweep();
+			return null;
+		});
+		return outcome.changed;
+	}
+
+	private void evicted(K key) {
 		statistics.ifPresent(SCacheStatisticsMXBean::eviction);
-		expiry.remove(key);
-		data.remove(key);
+		eventListenerDispatcher.event(EventType.EXPIRED, key, null, null);
+	}
+
+	private void evictIfNeeded() {
+		if (!evictionPolicy.isPresent()) {
+			return;
+		}
+		while (data.size() > configuration.getMaximumSize()) {
+			K victim;
+			evictionLock.lock();
+			try {
+				victim = evictionPolicy.get().victim();
+			} finally {
+				evictionLock.unlock();
+			}
+			if (victim == null) {
+				return;
+			}
+			if (discard(victim, null)) {
+				evicted(victim);
+			} else {
+				policyRemove(victim);
+			}
+		}
+	}
+
+	private void policyAdd(K key) {
+		if (evictionPolicy.isPresent()) {
+			evictionLock.lock();
+			try {
+				evictionPolicy.get().onAdd(key);
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+
+	// Reads are recorded on a best effort basis so that hits never wait on the eviction lock.
+	private void policyAccess(K key) {
+		if (evictionPolicy.isPresent() && evictionLock.tryLock()) {
+			try {
+				evictionPolicy.get().onAccess(key);
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+
+	private void policyRemove(K key) {
+		if (evictionPolicy.isPresent()) {
+			evictionLock.lock();
+			try {
+				evictionPolicy.get().onRemove(key);
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+
+	private boolean readsThrough() {
+		return loader.isPresent() && configuration.isReadThrough();
+	}
+
+	// Whether mutations call the CacheWriter on the mutating thread.
+	private boolean writesThrough() {
+		return writer.isPresent() && configuration.isWriteThrough() && !writeBehind.isPresent();
 	}
 
-	void setClock(Supplier<Long> clock) {
+	// Run on the executor when the operation may block, otherwise on the calling thread.
+	private <T> CompletableFuture<T> async(boolean blocking, Supplier<T> operation) {
+		if (blocking) {
+			exceptionIfClosed();
+			return CompletableFuture.supplyAsync(operation, executor);
+		}
+		return completed(operation);
+	}
+
+	// JSR-107 permits neither null keys nor null values.
+	private static void requireNonNull(Object key, Object value) {
+		Objects.requireNonNull(key, "Key can not be null.");
+		Objects.requireNonNull(value, "Value can not be null.");
+	}
+
+	private static <T> CompletableFuture<T> completed(Supplier<T> operation) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			future.complete(operation.get());
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private static long nanos(Duration duration) {
+		if (duration == null || duration.isEternal()) {
+			return 0L;
+		}
+		return duration.getTimeUnit().toNanos(duration.getDurationAmount());
+	}
+
+	void setClock(LongSupplier clock) {
 		this.clock = clock;
 	}
 
@@ -425,4 +1148,15 @@ public final class SCache<K, V> implements Cache<K, V>, SListenerList<K, V> {
 		return statistics.orElse(null);
 	}
 
+	// Captures what happened inside a map compute so events and statistics can be raised outside of it.
+	private static final class Outcome<V> {
+		V old;
+		boolean changed;
+		boolean expired;
+
+		boolean expired(SRecord record) {
+			expired = record.expired();
+			return expired;
+		}
+	}
 }
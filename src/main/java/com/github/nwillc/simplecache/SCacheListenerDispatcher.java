@@ -8,28 +8,45 @@
 
 package com.github.nwillc.simplecache;
 
+import com.github.nwillc.simplecache.configuration.SCacheConfiguration;
+import com.github.nwillc.simplecache.configuration.SEventOverflow;
 import com.github.nwillc.simplecache.event.SCacheEntryEvent;
+import com.github.nwillc.simplecache.managment.SCacheStatisticsMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.cache.Cache;
 import javax.cache.configuration.CacheEntryListenerConfiguration;
 import javax.cache.configuration.CompleteConfiguration;
 import javax.cache.event.CacheEntryCreatedListener;
 import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryEventFilter;
 import javax.cache.event.CacheEntryExpiredListener;
 import javax.cache.event.CacheEntryListener;
 import javax.cache.event.CacheEntryRemovedListener;
 import javax.cache.event.CacheEntryUpdatedListener;
 import javax.cache.event.EventType;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -39,32 +56,87 @@ import java.util.function.Consumer;
  * @param <V> value type
  */
 class SCacheListenerDispatcher<K, V> implements SListenerList<K, V> {
-	private static final long DISPATCH_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(1) / 2;
-	private final EnumMap<EventType, Deque<CacheEntryEvent>> eventMap = new EnumMap<>(EventType.class);
-	private final Set<Listener<K, V>> listeners = new HashSet<>();
+	private static final Logger LOGGER = LoggerFactory.getLogger(SCacheListenerDispatcher.class);
+	private final AtomicReference<Registry<K, V>> registry = new AtomicReference<>(new Registry<>(Collections.emptySet()));
 	private final Cache cache;
+	private final Optional<ScheduledExecutorService> scheduler;
+	private final long dispatchMillis;
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private volatile boolean closed;
+	private final int capacity;
+	private final SEventOverflow overflow;
+	private final long blockMillis;
+	private final Optional<SCacheStatisticsMXBean> statistics;
+	private final boolean coalesce;
+	private final Executor executor;
+	private final int partitions;
+	private final Map<K, CacheEntryEvent<K, V>> coalesced = new ConcurrentHashMap<>();
+	private final AtomicBoolean merging = new AtomicBoolean();
 
+	/**
+	 * Events are dispatched on the scheduler once the latency has passed since the first of them was queued. Without a
+	 * scheduler events are dispatched as they are raised.
+	 *
+	 * @param cache the cache raising events
+	 * @param scheduler the scheduler to dispatch on
+	 * @param dispatchMillis the most milliseconds an event waits to be dispatched
+	 */
+	public SCacheListenerDispatcher(Cache<K, V> cache, Optional<ScheduledExecutorService> scheduler, long dispatchMillis) {
+		this(cache, scheduler, dispatchMillis, SCacheConfiguration.DEFAULT_EVENT_QUEUE_CAPACITY, SEventOverflow.BLOCK,
+				SCacheConfiguration.DEFAULT_EVENT_BLOCK_TIMEOUT.getTimeUnit()
+						.toMillis(SCacheConfiguration.DEFAULT_EVENT_BLOCK_TIMEOUT.getDurationAmount()), Optional.empty(), false, Runnable::run, 1);
+	}
+
+	/**
+	 * Each asynchronous listener queues at most capacity events, the overflow deciding what happens once it is full.
+	 * A blocked event is dropped once it has waited the block timeout, or at once when raised by a listener into its
+	 * own full queue, as that queue can only drain once the listener returns.
+	 * When coalescing, the events for each key are instead merged into one net event until dispatched, so no more
+	 * than one event per key is pending. Each listener's events are split by key hash into partitions, each handed to
+	 * the listener on the executor one dispatch at a time, so a key's events arrive in order while partitions run in
+	 * parallel. A listener with more than one partition must therefore be thread safe.
+	 *
+	 * @param cache the cache raising events
+	 * @param scheduler the scheduler to dispatch on
+	 * @param dispatchMillis the most milliseconds an event waits to be dispatched
+	 * @param capacity the events queued per listener, shared between its partitions
+	 * @param overflow what to do with events raised while a queue is full
+	 * @param blockMillis the most milliseconds a blocked event waits for room
+	 * @param statistics where to record queue depth and dropped events
+	 * @param coalesce true to merge each key's pending events
+	 * @param executor the executor listeners are called on
+	 * @param partitions the number of partitions
+	 */
 	@SuppressWarnings("unchecked")
-	public SCacheListenerDispatcher(Cache<K, V> cache) {
+	public SCacheListenerDispatcher(Cache<K, V> cache, Optional<ScheduledExecutorService> scheduler, long dispatchMillis,
+									int capacity, SEventOverflow overflow, long blockMillis,
+									Optional<SCacheStatisticsMXBean> statistics,
+									boolean coalesce, Executor executor, int partitions) {
 		this.cache = cache;
+		this.scheduler = scheduler;
+		this.dispatchMillis = dispatchMillis;
+		this.capacity = capacity;
+		this.overflow = overflow;
+		this.blockMillis = blockMillis;
+		this.statistics = statistics;
+		this.coalesce = coalesce;
+		this.executor = executor;
+		this.partitions = partitions;
+		statistics.ifPresent(s -> {
+			s.setEventQueueDepth(this::depth);
+			s.setListenerDispatchTimes(this::dispatchTimes);
+		});
 		CompleteConfiguration<K, V> configuration = cache.getConfiguration(CompleteConfiguration.class);
 		Iterable<CacheEntryListenerConfiguration<K, V>> listenerConfigurations = configuration.getCacheEntryListenerConfigurations();
 		listenerConfigurations.forEach(this::registerCacheEntryListener);
-
-		new Timer(this.getClass().getSimpleName(), false).schedule(new TimerTask() {
-			@Override
-			public void run() {
-				dispatch();
-			}
-		}, DISPATCH_PERIOD_MILLIS, DISPATCH_PERIOD_MILLIS);
 	}
 
 	// Visible for testing
-	static <E> List<E> transfer(Deque<E> deque) {
-		List<E> list = new ArrayList<>(deque.size() + 10);
+	static <E> List<E> transfer(Queue<E> queue) {
+		List<E> list = new ArrayList<>(queue.size() + 10);
 
 		E element;
-		while ((element = deque.pollLast()) != null) {
+		while ((element = queue.poll()) != null) {
 			list.add(element);
 		}
 		return list;
@@ -102,57 +174,443 @@ class SCacheListenerDispatcher<K, V> implements SListenerList<K, V> {
 		}
 	}
 
+	// Visible for testing
+	static <K, V> CacheEntryEvent<K, V> coalesce(CacheEntryEvent<K, V> previous, CacheEntryEvent<K, V> next) {
+		if (previous == null) {
+			return next;
+		}
+		boolean existed = previous.getEventType() != EventType.CREATED;
+		switch (next.getEventType()) {
+			case CREATED:
+				return existed ? new SCacheEntryEvent<>(next.getSource(), EventType.UPDATED, next.getKey(), next.getValue(),
+						previous.getOldValue()) : next;
+			case UPDATED:
+				return new SCacheEntryEvent<>(next.getSource(), previous.getEventType() == EventType.CREATED ?
+						EventType.CREATED : EventType.UPDATED, next.getKey(), next.getValue(), previous.getOldValue());
+			default:
+				return existed ? new SCacheEntryEvent<>(next.getSource(), next.getEventType(), next.getKey(), next.getValue(),
+						previous.getOldValue()) : null;
+		}
+	}
+
 	@Override
+	@SuppressWarnings("unchecked")
 	public void registerCacheEntryListener(CacheEntryListenerConfiguration<K, V> cacheEntryListenerConfiguration) {
 		Listener<K, V> listener = new Listener<>(cacheEntryListenerConfiguration);
-		if (listeners.contains(listener)) {
+		if (registry.get().listeners.contains(listener)) {
 			throw new IllegalArgumentException("Attempting to register same listener twice");
 		}
 		CacheEntryListener<? super K, ? super V> cacheEntryListener = cacheEntryListenerConfiguration.getCacheEntryListenerFactory().create();
 		EventType eventType = SCacheListenerDispatcher.typeOf(cacheEntryListener);
 		listener.type = eventType;
+		listener.name = cacheEntryListener.getClass().getName() + '@' + Integer.toHexString(System.identityHashCode(cacheEntryListener));
 		listener.consumer = SCacheListenerDispatcher.toConsumer(eventType, cacheEntryListener);
-		listeners.add(listener);
-		if (!eventMap.containsKey(eventType)) {
-			eventMap.put(eventType, new ConcurrentLinkedDeque<>());
+		if (cacheEntryListenerConfiguration.getCacheEntryEventFilterFactory() != null) {
+			listener.filter = (CacheEntryEventFilter<K, V>) cacheEntryListenerConfiguration.getCacheEntryEventFilterFactory().create();
 		}
+		if (!cacheEntryListenerConfiguration.isSynchronous()) {
+			listener.lanes = new Lane[partitions];
+			for (int i = 0; i < partitions; i++) {
+				listener.lanes[i] = new Lane(Math.max(1, capacity / partitions));
+			}
+		}
+		Registry<K, V> current;
+		do {
+			current = registry.get();
+			if (current.listeners.contains(listener)) {
+				throw new IllegalArgumentException("Attempting to register same listener twice");
+			}
+		} while (!registry.compareAndSet(current, current.with(listener)));
 	}
 
 	@Override
 	public void deregisterCacheEntryListener(CacheEntryListenerConfiguration<K, V> cacheEntryListenerConfiguration) {
 		Listener<K, V> listener = new Listener<>(cacheEntryListenerConfiguration);
-		listeners.remove(listener);
+		Registry<K, V> current;
+		do {
+			current = registry.get();
+			if (!current.listeners.contains(listener)) {
+				return;
+			}
+		} while (!registry.compareAndSet(current, current.without(listener)));
+	}
+
+	/**
+	 * Does any registered listener require the old value of updated entries.
+	 *
+	 * @return true if old values should be captured for events
+	 */
+	public boolean isOldValueRequired() {
+		return registry.get().oldValueRequired;
 	}
 
 	public void event(EventType type, K key, V value, V old) {
-		Deque<CacheEntryEvent> events = eventMap.get(type);
-		if (events != null) {
-			events.addFirst(new SCacheEntryEvent<>(cache, type, key, value, old));
+		Registry<K, V> registry = this.registry.get();
+		boolean coalescing = coalescing(registry);
+		List<Listener<K, V>> inline = registry.synchronous.get(type);
+		List<Listener<K, V>> queued = coalescing ? null : registry.asynchronous.get(type);
+		if (inline == null && queued == null && !coalescing) {
+			return;
+		}
+		CacheEntryEvent<K, V> event = new SCacheEntryEvent<>(cache, type, key, value, registry.oldValueRequired ? old : null);
+		if (inline != null) {
+			List<CacheEntryEvent> single = Collections.singletonList(event);
+			for (Listener<K, V> listener : inline) {
+				if (listener.accepts(event)) {
+					listener.consumer.accept(single);
+				}
+			}
+		}
+		if (coalescing) {
+			coalesce(event);
+		} else if (queued != null) {
+			boolean accepted = false;
+			for (Listener<K, V> listener : queued) {
+				if (listener.accepts(event)) {
+					accepted |= enqueue(listener, event);
+				}
+			}
+			if (accepted) {
+				pending();
+			}
+		}
+	}
+
+	public void events(EventType type, Map<K, V> entries) {
+		if (!entries.isEmpty() && registry.get().raises(type, coalesce)) {
+			List<CacheEntryEvent<K, V>> batch = new ArrayList<>(entries.size());
+			entries.forEach((key, value) -> batch.add(new SCacheEntryEvent<>(cache, type, key, value, null)));
+			raise(type, batch);
 		}
 	}
 
+	public void events(EventType type, Collection<K> keys) {
+		if (!keys.isEmpty() && registry.get().raises(type, coalesce)) {
+			List<CacheEntryEvent<K, V>> batch = new ArrayList<>(keys.size());
+			keys.forEach(key -> batch.add(new SCacheEntryEvent<>(cache, type, key, null, null)));
+			raise(type, batch);
+		}
+	}
+
+	// Pass a batch to the synchronous listeners now and queue it for the others, each seeing what its filter accepts.
+	private void raise(EventType type, List<CacheEntryEvent<K, V>> batch) {
+		Registry<K, V> registry = this.registry.get();
+		List<Listener<K, V>> inline = registry.synchronous.get(type);
+		if (inline != null) {
+			for (Listener<K, V> listener : inline) {
+				List<CacheEntryEvent> accepted = listener.accepted(batch);
+				if (!accepted.isEmpty()) {
+					listener.consumer.accept(accepted);
+				}
+			}
+		}
+		if (coalescing(registry)) {
+			batch.forEach(this::coalesce);
+			return;
+		}
+		List<Listener<K, V>> queued = registry.asynchronous.get(type);
+		if (queued != null) {
+			boolean pending = false;
+			for (Listener<K, V> listener : queued) {
+				for (CacheEntryEvent event : listener.accepted(batch)) {
+					pending |= enqueue(listener, event);
+				}
+			}
+			if (pending) {
+				pending();
+			}
+		}
+	}
+
+	/**
+	 * The number of events queued, across all asynchronous listeners, awaiting dispatch.
+	 *
+	 * @return the queued events
+	 */
+	public long depth() {
+		long depth = coalesced.size();
+		for (List<Listener<K, V>> registered : registry.get().asynchronous.values()) {
+			for (Listener<K, V> listener : registered) {
+				for (Lane lane : listener.lanes) {
+					depth += lane.queue.size();
+				}
+			}
+		}
+		return depth;
+	}
+
+	/**
+	 * The average time, in microseconds, each asynchronous listener has taken to handle a dispatch. Listeners are
+	 * named by class and identity.
+	 *
+	 * @return the average dispatch times by listener
+	 */
+	public Map<String, Float> dispatchTimes() {
+		Map<String, Float> times = new HashMap<>();
+		registry.get().asynchronous.values().forEach(registered -> registered.forEach(l -> {
+			long dispatches = l.dispatches.sum();
+			times.put(l.name, dispatches == 0L ? 0.0f : l.dispatchNanos.sum() / (dispatches * 1000.0f));
+		}));
+		return times;
+	}
+
+	// Events of every type are merged when coalescing, as any of them can change a key's net event.
+	private boolean coalescing(Registry<K, V> registry) {
+		return coalesce && !registry.asynchronous.isEmpty();
+	}
+
+	private void coalesce(CacheEntryEvent<K, V> event) {
+		coalesced.compute(event.getKey(), (key, previous) -> coalesce(previous, event));
+		pending();
+	}
+
+	// Queue an event in its key's lane, applying the overflow when the lane is full. False if the event was dropped.
+	private boolean enqueue(Listener<K, V> listener, CacheEntryEvent event) {
+		Lane lane = listener.lane(event.getKey());
+		if (lane.queue.offer(event)) {
+			return true;
+		}
+		switch (overflow) {
+			case DROP:
+				statistics.ifPresent(SCacheStatisticsMXBean::eventDropped);
+				return false;
+			case DROP_OLDEST:
+				do {
+					if (lane.queue.poll() != null) {
+						statistics.ifPresent(SCacheStatisticsMXBean::eventDropped);
+					}
+				} while (!lane.queue.offer(event));
+				return true;
+			default:
+				if (block(listener, lane, event)) {
+					return true;
+				}
+				statistics.ifPresent(SCacheStatisticsMXBean::eventDropped);
+				LOGGER.warn("Dropped cache entry event for listener {}, its queue stayed full", listener.name);
+				return false;
+		}
+	}
+
+	// Wait up to the block timeout for the lane to drain room. The lane's own drainer can not make room, and
+	// delivering the queue from inside the listener would pass its events ahead of those already being delivered, so
+	// it does not wait. Nor do the manager's scheduler threads, which coalesced dispatches and expiry sweeps run on,
+	// as a wait there would hold up every cache of the manager.
+	private boolean block(Listener<K, V> listener, Lane lane, CacheEntryEvent event) {
+		if (lane.drainer == Thread.currentThread() || SCacheManager.isSchedulerThread()) {
+			return false;
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockMillis);
+		boolean interrupted = false;
+		try {
+			while (!lane.queue.offer(event)) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0L) {
+					return false;
+				}
+				signal(listener, lane);
+				try {
+					if (lane.queue.offer(event, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(Math.max(dispatchMillis, 1L))),
+							TimeUnit.NANOSECONDS)) {
+						return true;
+					}
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			return true;
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Dispatch any queued events and stop scheduling further dispatches.
+	 */
+	public void close() {
+		closed = true;
+		dispatch();
+	}
+
+	// Schedule a dispatch unless one is already scheduled.
+	private void pending() {
+		if (!scheduler.isPresent()) {
+			dispatch();
+			return;
+		}
+		if (!closed && scheduled.compareAndSet(false, true)) {
+			try {
+				scheduler.get().schedule(() -> {
+					scheduled.set(false);
+					dispatch();
+				}, dispatchMillis, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				scheduled.set(false);
+			}
+		}
+	}
+
+	// Each lane drains serially on the executor, so a slow listener only delays its own events, and only in that lane.
+	// Only one thread at a time moves coalesced events, keeping each key's net events in order, and it rechecks for
+	// events merged while it held the flag so none are stranded.
 	private void dispatch() {
-		final EnumMap<EventType, List<CacheEntryEvent>> snapshot = new EnumMap<>(EventType.class);
-		eventMap.keySet().forEach(eventType -> snapshot.put(eventType, transfer(eventMap.get(eventType))));
+		Registry<K, V> registry = this.registry.get();
+		while (!coalesced.isEmpty() && merging.compareAndSet(false, true)) {
+			try {
+				dispatchCoalesced(registry);
+			} finally {
+				merging.set(false);
+			}
+		}
+		registry.asynchronous.values().forEach(registered -> registered.forEach(l -> {
+			for (Lane lane : l.lanes) {
+				if (!lane.queue.isEmpty()) {
+					signal(l, lane);
+				}
+			}
+		}));
+	}
 
-		listeners.forEach(l -> {
-			List<CacheEntryEvent> list = snapshot.get(l.type);
-			if (list != null && list.size() > 0) {
-				l.consumer.accept(list);
+	// Move each key's net event into the queues of the listeners of its type that accept it.
+	private void dispatchCoalesced(Registry<K, V> registry) {
+		for (K key : coalesced.keySet()) {
+			CacheEntryEvent<K, V> event = coalesced.remove(key);
+			List<Listener<K, V>> registered = event == null ? null : registry.asynchronous.get(event.getEventType());
+			if (registered != null) {
+				for (Listener<K, V> listener : registered) {
+					if (listener.accepts(event)) {
+						enqueue(listener, event);
+					}
+				}
 			}
-		});
+		}
+	}
+
+	// Start draining a lane on the executor unless it is already being drained.
+	private void signal(Listener<K, V> listener, Lane lane) {
+		if (lane.draining.compareAndSet(false, true)) {
+			try {
+				executor.execute(() -> drain(listener, lane));
+			} catch (RejectedExecutionException e) {
+				drain(listener, lane);
+			}
+		}
+	}
+
+	private void drain(Listener<K, V> listener, Lane lane) {
+		lane.drainer = Thread.currentThread();
+		try {
+			deliver(listener, lane);
+		} finally {
+			lane.drainer = null;
+			lane.draining.set(false);
+		}
+		if (!lane.queue.isEmpty()) {
+			signal(listener, lane);
+		}
+	}
+
+	private void deliver(Listener<K, V> listener, Lane lane) {
+		List<CacheEntryEvent> list = transfer(lane.queue);
+		if (list.size() > 0) {
+			long start = System.nanoTime();
+			try {
+				listener.consumer.accept(list);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Cache entry listener failed", e);
+			}
+			listener.dispatches.increment();
+			listener.dispatchNanos.add(System.nanoTime() - start);
+		}
+	}
+
+	// An immutable snapshot of the registered listeners. Registration swaps in a new snapshot, so raising and
+	// dispatching events read the listeners without locking.
+	static final class Registry<K, V> {
+		final Set<Listener<K, V>> listeners;
+		final Map<EventType, List<Listener<K, V>>> synchronous = new EnumMap<>(EventType.class);
+		final Map<EventType, List<Listener<K, V>>> asynchronous = new EnumMap<>(EventType.class);
+		final boolean oldValueRequired;
+
+		Registry(Set<Listener<K, V>> listeners) {
+			this.listeners = listeners;
+			for (Listener<K, V> listener : listeners) {
+				(listener.configuration.isSynchronous() ? synchronous : asynchronous)
+						.computeIfAbsent(listener.type, t -> new ArrayList<>()).add(listener);
+			}
+			oldValueRequired = listeners.stream().anyMatch(l -> l.configuration.isOldValueRequired());
+		}
+
+		Registry<K, V> with(Listener<K, V> listener) {
+			Set<Listener<K, V>> copy = new LinkedHashSet<>(listeners);
+			copy.add(listener);
+			return new Registry<>(Collections.unmodifiableSet(copy));
+		}
+
+		Registry<K, V> without(Listener<K, V> listener) {
+			Set<Listener<K, V>> copy = new LinkedHashSet<>(listeners);
+			copy.remove(listener);
+			return new Registry<>(Collections.unmodifiableSet(copy));
+		}
+
+		// Could an event of the type reach any listener.
+		boolean raises(EventType type, boolean coalesce) {
+			return synchronous.containsKey(type) || asynchronous.containsKey(type) || (coalesce && !asynchronous.isEmpty());
+		}
+	}
+
+	// A bounded queue of a listener's events for a share of the keys, drained by one thread at a time.
+	static class Lane {
+		final BlockingQueue<CacheEntryEvent> queue;
+		final AtomicBoolean draining = new AtomicBoolean();
+		volatile Thread drainer;
+
+		Lane(int capacity) {
+			queue = new ArrayBlockingQueue<>(capacity);
+		}
 	}
 
 	// Visible for testing
 	static class Listener<K2, V2> {
 		final CacheEntryListenerConfiguration<K2, V2> configuration;
+		final LongAdder dispatches = new LongAdder();
+		final LongAdder dispatchNanos = new LongAdder();
+		Lane[] lanes;
+		String name;
 		Consumer<Iterable<CacheEntryEvent>> consumer;
+		CacheEntryEventFilter<K2, V2> filter;
 		EventType type;
 
 		public Listener(CacheEntryListenerConfiguration<K2, V2> configuration) {
 			this.configuration = configuration;
 		}
 
+		Lane lane(Object key) {
+			if (lanes.length == 1) {
+				return lanes[0];
+			}
+			int hash = key.hashCode();
+			return lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)];
+		}
+
+		boolean accepts(CacheEntryEvent<K2, V2> event) {
+			return filter == null || filter.evaluate(event);
+		}
+
+		List<CacheEntryEvent> accepted(List<CacheEntryEvent<K2, V2>> batch) {
+			if (filter == null) {
+				return new ArrayList<>(batch);
+			}
+			List<CacheEntryEvent> accepted = new ArrayList<>();
+			for (CacheEntryEvent<K2, V2> event : batch) {
+				if (filter.evaluate(event)) {
+					accepted.add(event);
+				}
+			}
+			return accepted;
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) return true;
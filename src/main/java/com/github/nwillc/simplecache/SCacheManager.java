@@ -18,13 +18,40 @@ import java.net.URI;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
 
 public class SCacheManager implements CacheManager {
+	/**
+	 * Property holding the milliseconds between turns of the expiry sweeper's timing wheel.
+	 */
+	public static final String EXPIRY_TICK_MILLIS = "simplecache.expiry.tick.millis";
+	private static final long DEFAULT_EXPIRY_TICK_MILLIS = 100L;
+	/**
+	 * Property holding the milliseconds between updates of the clock caches read, zero to read System.nanoTime.
+	 */
+	public static final String CLOCK_RESOLUTION_MILLIS = "simplecache.clock.resolution.millis";
+	private static final long DEFAULT_CLOCK_RESOLUTION_MILLIS = 1L;
+	/**
+	 * Property holding the most milliseconds a cache event waits before being dispatched to listeners.
+	 */
+	public static final String EVENT_DISPATCH_MILLIS = "simplecache.event.dispatch.millis";
+	private static final long DEFAULT_EVENT_DISPATCH_MILLIS = 500L;
+	private static final int SCHEDULER_THREADS = 2;
+	private static final ThreadLocal<Boolean> SCHEDULER_THREAD = ThreadLocal.withInitial(() -> false);
 	private final Map<String, Cache> cacheMap = new ConcurrentHashMap<>();
 	private final Properties properties;
 	private final SCachingProvider cachingProvider;
 	private final AtomicBoolean closed = new AtomicBoolean(true);
+	private ScheduledExecutorService scheduler;
+	private ScheduledExecutorService ticker;
+	private ExecutorService listenerExecutor;
+	private STimingWheel expiryWheel;
+	private LongSupplier clock;
 
 	public SCacheManager(SCachingProvider cachingProvider, Properties properties) {
 		this.cachingProvider = cachingProvider;
@@ -99,6 +126,17 @@ public class SCacheManager implements CacheManager {
 		if (closed.compareAndSet(false, true)) {
 			cacheMap.values().forEach(Cache::close);
 			cacheMap.clear();
+			synchronized (this) {
+				if (scheduler != null) {
+					scheduler.shutdownNow();
+				}
+				if (ticker != null) {
+					ticker.shutdownNow();
+				}
+				if (listenerExecutor != null) {
+					listenerExecutor.shutdown();
+				}
+			}
 		}
 	}
 
@@ -116,6 +154,98 @@ public class SCacheManager implements CacheManager {
 		throw new IllegalArgumentException();
 	}
 
+	/**
+	 * The timing wheel that sweeps expired entries from this manager's caches, started on first use.
+	 *
+	 * @return the expiry timing wheel
+	 */
+	synchronized STimingWheel getExpiryWheel() {
+		if (expiryWheel == null) {
+			long tickMillis = longProperty(EXPIRY_TICK_MILLIS, DEFAULT_EXPIRY_TICK_MILLIS);
+			expiryWheel = new STimingWheel(System::nanoTime, TimeUnit.MILLISECONDS.toNanos(tickMillis));
+			getScheduler().scheduleAtFixedRate(expiryWheel::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+		}
+		return expiryWheel;
+	}
+
+	/**
+	 * The clock this manager's caches read, a shared cached clock ticked at the configured resolution. It ticks on a
+	 * thread of its own, as the scheduler runs listeners and writers that could otherwise hold the clock still.
+	 *
+	 * @return the clock in nanoseconds
+	 */
+	synchronized LongSupplier getClock() {
+		if (clock == null) {
+			long resolutionMillis = longProperty(CLOCK_RESOLUTION_MILLIS, DEFAULT_CLOCK_RESOLUTION_MILLIS);
+			if (resolutionMillis <= 0) {
+				clock = System::nanoTime;
+			} else {
+				SCachedClock cachedClock = new SCachedClock();
+				exceptionIfClosed();
+				ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, getClass().getSimpleName() + "-ticker");
+					thread.setDaemon(true);
+					return thread;
+				});
+				ticker.scheduleAtFixedRate(cachedClock::tick, resolutionMillis, resolutionMillis, TimeUnit.MILLISECONDS);
+				clock = cachedClock;
+			}
+		}
+		return clock;
+	}
+
+	long getEventDispatchMillis() {
+		return longProperty(EVENT_DISPATCH_MILLIS, DEFAULT_EVENT_DISPATCH_MILLIS);
+	}
+
+	synchronized ScheduledExecutorService getScheduler() {
+		exceptionIfClosed();
+		if (scheduler == null) {
+			scheduler = Executors.newScheduledThreadPool(SCHEDULER_THREADS, runnable -> {
+				Thread thread = new Thread(() -> {
+					SCHEDULER_THREAD.set(true);
+					runnable.run();
+				}, getClass().getSimpleName() + "-scheduler");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return scheduler;
+	}
+
+	/**
+	 * The executor asynchronous listeners of this manager's caches are called on by default, daemon threads used by
+	 * nothing else, so a listener can not take the threads of the code raising its events.
+	 *
+	 * @return the listener executor
+	 */
+	synchronized ExecutorService getListenerExecutor() {
+		exceptionIfClosed();
+		if (listenerExecutor == null) {
+			listenerExecutor = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, getClass().getSimpleName() + "-listener");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return listenerExecutor;
+	}
+
+	/**
+	 * Is the calling thread one of a manager's scheduler threads, which every cache of the manager shares and so must
+	 * never wait on a listener.
+	 *
+	 * @return true on a scheduler thread
+	 */
+	static boolean isSchedulerThread() {
+		return SCHEDULER_THREAD.get();
+	}
+
+	private long longProperty(String name, long defaultValue) {
+		String value = properties.getProperty(name);
+		return value == null ? defaultValue : Long.parseLong(value);
+	}
+
 	private void exceptionIfClosed() {
 		if (closed.get()) {
 			throw new IllegalStateException("CacheManager is closed.");
@@ -11,89 +11,74 @@ package com.github.nwillc.simplecache;
 import javax.cache.expiry.Duration;
 import javax.cache.expiry.EternalExpiryPolicy;
 import javax.cache.expiry.ExpiryPolicy;
-import java.util.function.Supplier;
+import java.util.function.LongSupplier;
 
 /**
- * Stores time stamps for creation, access and update.  Implements logic to test the times against different ExpiryPolicies.
+ * Holds the deadline after which an entry is expired. The deadline is computed from the ExpiryPolicy only when the
+ * entry is created, accessed or updated, following the JSR-107 rule that a null duration leaves it unchanged, so
+ * checking for expiry is a single comparison and any ExpiryPolicy implementation can be used.
  */
 class SExpiryData {
-	public static final long NEVER = -1L;
-	private final Supplier<Long> timeSource;
+	public static final long NEVER = Long.MAX_VALUE;
+	private final LongSupplier timeSource;
 	private final ExpiryPolicy expiryPolicy;
-	private final Expired expired;
-	final long created;
-	long accessed = NEVER;
-	long updated = NEVER;
+	volatile long deadline;
 
-	public SExpiryData(Supplier<Long> timeSource) {
+	public SExpiryData(LongSupplier timeSource) {
 		this(timeSource, new EternalExpiryPolicy());
 	}
 
-	SExpiryData(Supplier<Long> timeSource, ExpiryPolicy expiryPolicy) {
+	SExpiryData(LongSupplier timeSource, ExpiryPolicy expiryPolicy) {
 		this.timeSource = timeSource;
 		this.expiryPolicy = expiryPolicy;
-		expired = Expired.valueOf(expiryPolicy.getClass().getSimpleName());
-		created = timeSource.get();
+		Duration duration = expiryPolicy.getExpiryForCreation();
+		deadline = deadline(duration == null ? Duration.ETERNAL : duration);
 	}
 
 	SExpiryData access() {
-		accessed = timeSource.get();
+		Duration duration = expiryPolicy.getExpiryForAccess();
+		if (duration != null) {
+			deadline = deadline(duration);
+		}
 		return this;
 	}
 
 	SExpiryData update() {
-		updated = timeSource.get();
+		Duration duration = expiryPolicy.getExpiryForUpdate();
+		if (duration != null) {
+			deadline = deadline(duration);
+		}
 		return this;
 	}
 
 	boolean expired() {
-		return expired.test(this, timeSource.get());
+		long expires = deadline;
+		return expires != NEVER && timeSource.getAsLong() > expires;
 	}
 
-	enum Expired {
-		EternalExpiryPolicy {
-			@Override
-			boolean test(SExpiryData expiryData, long now) {
-				return false;
-			}
-		},
-		CreatedExpiryPolicy {
-			@Override
-			boolean test(SExpiryData expiryData, long now) {
-				return test(now, expiryData.expiryPolicy.getExpiryForCreation(), expiryData.created);
-			}
-		},
-		AccessedExpiryPolicy {
-			@Override
-			boolean test(SExpiryData expiryData, long now) {
-				return test(now, expiryData.expiryPolicy.getExpiryForAccess(), expiryData.accessed);
-			}
-		},
-		ModifiedExpiryPolicy {
-			@Override
-			boolean test(SExpiryData expiryData, long now) {
-				return test(now, expiryData.expiryPolicy.getExpiryForUpdate(), expiryData.created, expiryData.updated);
-			}
-		},
-		TouchedExpiryPolicy {
-			@Override
-			boolean test(SExpiryData expiryData, long now) {
-				return test(now, expiryData.expiryPolicy.getExpiryForCreation(), expiryData.created, expiryData.updated, expiryData.accessed);
-			}
-		};
+	/**
+	 * How long until this expires, relative to the time source.
+	 *
+	 * @return nanoseconds remaining, negative if already expired, NEVER if it never expires
+	 */
+	long expiresIn() {
+		long expires = deadline;
+		return expires == NEVER ? NEVER : expires - timeSource.getAsLong();
+	}
 
-		abstract boolean test(SExpiryData expiryData, long now);
+	long now() {
+		return timeSource.getAsLong();
+	}
 
-		boolean test(long now, Duration duration, long... times) {
-			long last = 0L;
-			for (long time : times) {
-				if (time > last) {
-					last = time;
-				}
-			}
-			long delta = now - last;
-			return delta > duration.getTimeUnit().toNanos(duration.getDurationAmount());
+	private long deadline(Duration duration) {
+		if (duration.isEternal()) {
+			return NEVER;
 		}
-
+		long now = timeSource.getAsLong();
+		if (duration.isZero()) {
+			return now - 1;
+		}
+		long expires = now + duration.getTimeUnit().toNanos(duration.getDurationAmount());
+		return expires < now ? NEVER : expires;
 	}
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import javax.cache.expiry.ExpiryPolicy;
+import java.util.function.LongSupplier;
+
+/**
+ * A cached value, or its serialized form, stored together with its expiry data and when it was last written, so a
+ * lookup is a single map probe.
+ */
+class SRecord extends SExpiryData {
+	private volatile Object value;
+	private volatile long written;
+	private volatile long writes;
+	private volatile STimingWheel.Timeout sweep;
+
+	SRecord(LongSupplier timeSource, ExpiryPolicy expiryPolicy, Object value) {
+		super(timeSource, expiryPolicy);
+		this.value = value;
+		written = now();
+	}
+
+	Object getValue() {
+		return value;
+	}
+
+	SRecord update(Object value) {
+		this.value = value;
+		written = now();
+		writes++;
+		update();
+		return this;
+	}
+
+	/**
+	 * How many times the value was updated, so a writer can tell whether the record changed even when the same
+	 * value was written again. Updates happen within a map compute, so one thread at a time.
+	 *
+	 * @return the update count
+	 */
+	long writes() {
+		return writes;
+	}
+
+	void setSweep(STimingWheel.Timeout sweep) {
+		this.sweep = sweep;
+	}
+
+	/**
+	 * Cancel any pending expiry sweep of the record once it leaves the cache, so the sweep no longer holds the key,
+	 * value or cache.
+	 */
+	void cancelSweep() {
+		STimingWheel.Timeout pending = sweep;
+		if (pending != null) {
+			pending.cancel();
+			sweep = null;
+		}
+	}
+
+	/**
+	 * How long since the value was written, relative to the time source.
+	 *
+	 * @return nanoseconds since the value was created or last updated
+	 */
+	long age() {
+		return now() - written;
+	}
+}
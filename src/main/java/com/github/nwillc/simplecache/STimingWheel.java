@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * A hierarchical timing wheel. Tasks are hashed into the slot of the coarsest level that can hold their deadline and
+ * cascade to finer levels as the wheel turns, so scheduling and firing cost O(1) amortized with no scans. Tasks may
+ * be scheduled and cancelled from any thread, the wheel itself is only turned by the single thread calling advance. A
+ * cancelled timeout lets go of its task at once and is dropped from its slot when the wheel next reaches it.
+ */
+class STimingWheel {
+	private static final Logger LOGGER = LoggerFactory.getLogger(STimingWheel.class);
+	private static final int LEVELS = 4;
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private final Queue<Timeout> inbox = new ConcurrentLinkedQueue<>();
+	private final List<List<Timeout>> slots = new ArrayList<>(LEVELS * SLOTS);
+	private final LongSupplier timeSource;
+	private final long tickNanos;
+	private final long start;
+	private long currentTick;
+
+	/**
+	 * A task run when its deadline passes.
+	 */
+	interface Task {
+		/**
+		 * Run the task.
+		 *
+		 * @return nanoseconds until the task should run again, negative when it is done
+		 */
+		long run();
+	}
+
+	STimingWheel(LongSupplier timeSource, long tickNanos) {
+		this.timeSource = timeSource;
+		this.tickNanos = tickNanos;
+		start = timeSource.getAsLong();
+		for (int i = 0; i < LEVELS * SLOTS; i++) {
+			slots.add(new ArrayList<>());
+		}
+	}
+
+	Timeout schedule(Task task, long delayNanos) {
+		Timeout timeout = new Timeout(task, ticksFrom(timeSource.getAsLong() - start, delayNanos));
+		inbox.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Turn the wheel up to the current time, running every task whose deadline passed.
+	 */
+	void advance() {
+		long now = (timeSource.getAsLong() - start) / tickNanos;
+		Timeout timeout;
+		while ((timeout = inbox.poll()) != null) {
+			place(timeout);
+		}
+		while (currentTick < now) {
+			currentTick++;
+			cascade();
+			List<Timeout> due = take(0, (int) (currentTick & SLOT_MASK));
+			for (Timeout t : due) {
+				if (t.deadline > currentTick) {
+					place(t);
+				} else {
+					fire(t);
+				}
+			}
+		}
+	}
+
+	private void cascade() {
+		int level = 0;
+		while (level < LEVELS - 1 && ((currentTick >>> (SLOT_BITS * (level + 1) - SLOT_BITS)) & SLOT_MASK) == 0) {
+			level++;
+		}
+		for (int l = level; l > 0; l--) {
+			for (Timeout t : take(l, (int) ((currentTick >>> (SLOT_BITS * l)) & SLOT_MASK))) {
+				place(t);
+			}
+		}
+	}
+
+	private void place(Timeout timeout) {
+		if (timeout.task == null) {
+			return;
+		}
+		long delta = timeout.deadline - currentTick;
+		if (delta <= 0) {
+			fire(timeout);
+			return;
+		}
+		for (int level = 0; level < LEVELS; level++) {
+			if (delta < 1L << (SLOT_BITS * (level + 1))) {
+				slot(level, (int) ((timeout.deadline >>> (SLOT_BITS * level)) & SLOT_MASK)).add(timeout);
+				return;
+			}
+		}
+		// Beyond the wheel's span, park in the last slot of the top level to be placed again when it cascades
+		int top = LEVELS - 1;
+		slot(top, (int) (((currentTick >>> (SLOT_BITS * top)) - 1) & SLOT_MASK)).add(timeout);
+	}
+
+	private void fire(Timeout timeout) {
+		Task task = timeout.task;
+		if (task == null) {
+			return;
+		}
+		long next;
+		try {
+			next = task.run();
+		} catch (RuntimeException e) {
+			LOGGER.warn("Timing wheel task failed", e);
+			return;
+		}
+		if (next >= 0) {
+			timeout.deadline = ticksFrom(currentTick * tickNanos, next);
+			place(timeout);
+		}
+	}
+
+	private long ticksFrom(long elapsedNanos, long delayNanos) {
+		long delay = Math.max(1L, (delayNanos + tickNanos - 1) / tickNanos);
+		long base = elapsedNanos / tickNanos;
+		return delay > Long.MAX_VALUE - base ? Long.MAX_VALUE : base + delay;
+	}
+
+	private List<Timeout> slot(int level, int index) {
+		return slots.get(level * SLOTS + index);
+	}
+
+	private List<Timeout> take(int level, int index) {
+		List<Timeout> taken = slot(level, index);
+		if (taken.isEmpty()) {
+			return taken;
+		}
+		slots.set(level * SLOTS + index, new ArrayList<>());
+		return taken;
+	}
+
+	/**
+	 * A scheduled task, which can be cancelled until it is done.
+	 */
+	static final class Timeout {
+		private volatile Task task;
+		private long deadline;
+
+		private Timeout(Task task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Stop the task from running again and release it.
+		 */
+		void cancel() {
+			task = null;
+		}
+
+		boolean isCancelled() {
+			return task == null;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to a virtual thread per task executor on JDKs that have them, found reflectively so the library still runs
+ * on Java 8.
+ */
+final class SVirtualThreads {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SVirtualThreads.class);
+	private static final Optional<Executor> EXECUTOR = resolve();
+
+	private SVirtualThreads() {
+	}
+
+	/**
+	 * A shared executor starting a virtual thread per task, if the running JDK supports them. Virtual threads are
+	 * daemons and not pooled so the executor is never shut down.
+	 *
+	 * @return the executor, or empty before Java 21
+	 */
+	static Optional<Executor> executor() {
+		return EXECUTOR;
+	}
+
+	private static Optional<Executor> resolve() {
+		try {
+			return Optional.of((Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+		} catch (NoSuchMethodException e) {
+			return Optional.empty();
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			LOGGER.warn("Virtual threads unavailable", e);
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import com.github.nwillc.simplecache.integration.SWriteBehindListener;
+import com.github.nwillc.simplecache.managment.SCacheStatisticsMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.cache.Cache;
+import javax.cache.integration.CacheWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queues the writes and deletes of a write-behind cache and passes them to its CacheWriter in batches. A batch is
+ * flushed once the delay passes or the queue reaches the batch size. Only the latest mutation of a key is queued, so a
+ * key written repeatedly between flushes reaches the writer once. The manager's scheduler only requests flushes, the
+ * writer is called on the cache's executor with at most one flush in flight, so a slow writer can not hold the
+ * scheduler's threads.
+ *
+ * @param <K> cache's key type
+ * @param <V> cache's value type
+ */
+class SWriteBehind<K, V> {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SWriteBehind.class);
+	private static final Object DELETE = new Object();
+	private final ConcurrentMap<K, Object> pending = new ConcurrentHashMap<>();
+	private final ReentrantLock flushLock = new ReentrantLock();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private final CacheWriter<K, V> writer;
+	private final int batchSize;
+	private final Executor executor;
+	private final ScheduledFuture<?> flusher;
+	private final Optional<SCacheStatisticsMXBean> statistics;
+	private final Optional<SWriteBehindListener<K, V>> listener;
+
+	@SuppressWarnings("unchecked")
+	SWriteBehind(CacheWriter<? super K, ? super V> writer, int batchSize, long delayNanos,
+				 ScheduledExecutorService scheduler, Executor executor, Optional<SCacheStatisticsMXBean> statistics,
+				 Optional<SWriteBehindListener<K, V>> listener) {
+		this.writer = (CacheWriter<K, V>) writer;
+		this.batchSize = batchSize;
+		this.executor = executor;
+		this.statistics = statistics;
+		this.listener = listener;
+		flusher = scheduler.scheduleWithFixedDelay(this::requestFlush, delayNanos, delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	void write(K key, V value) {
+		pending.put(key, value);
+		flushIfFull();
+	}
+
+	void delete(K key) {
+		pending.put(key, DELETE);
+		flushIfFull();
+	}
+
+	/**
+	 * Pass what is queued to the writer. Mutations queued while flushing wait for the next flush, so a steady stream
+	 * of writes can not hold the flushing thread.
+	 */
+	@SuppressWarnings("unchecked")
+	void flush() {
+		flushLock.lock();
+		try {
+			int remaining = pending.size();
+			while (remaining > 0 && !pending.isEmpty()) {
+				List<Cache.Entry<? extends K, ? extends V>> writes = new ArrayList<>();
+				List<K> deletes = new ArrayList<>();
+				Iterator<K> keys = pending.keySet().iterator();
+				while (keys.hasNext() && writes.size() + deletes.size() < batchSize) {
+					K key = keys.next();
+					Object mutation = pending.remove(key);
+					if (mutation == DELETE) {
+						deletes.add(key);
+					} else if (mutation != null) {
+						writes.add(new SEntry<>(key, (V) mutation));
+					}
+				}
+				remaining -= writes.size() + deletes.size();
+				writeAll(writes);
+				deleteAll(deletes);
+			}
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	void close() {
+		flusher.cancel(false);
+		flush();
+	}
+
+	int size() {
+		return pending.size();
+	}
+
+	private void flushIfFull() {
+		if (pending.size() >= batchSize) {
+			requestFlush();
+		}
+	}
+
+	// Flush on the executor unless a flush is already requested or running, checking again once it is done.
+	private void requestFlush() {
+		if (pending.isEmpty() || !flushRequested.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					flushQuietly();
+				} finally {
+					flushRequested.set(false);
+				}
+				flushIfFull();
+			});
+		} catch (RejectedExecutionException e) {
+			flushRequested.set(false);
+		}
+	}
+
+	// A failure escaping a scheduled flush would cancel all later ones.
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			LOGGER.warn("Write behind flush failed", e);
+		}
+	}
+
+	private void writeAll(List<Cache.Entry<? extends K, ? extends V>> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		statistics.ifPresent(SCacheStatisticsMXBean::writeThrough);
+		try {
+			writer.writeAll(entries);
+		} catch (Exception e) {
+			statistics.ifPresent(s -> s.writeBehindFailure(entries.size()));
+			if (listener.isPresent()) {
+				listener.get().onWriteFailure(entries, e);
+			} else {
+				LOGGER.warn("Write behind of {} entries failed", entries.size(), e);
+			}
+		}
+	}
+
+	private void deleteAll(List<K> keys) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		statistics.ifPresent(SCacheStatisticsMXBean::removeThrough);
+		try {
+			writer.deleteAll(keys);
+		} catch (Exception e) {
+			statistics.ifPresent(s -> s.writeBehindFailure(keys.size()));
+			if (listener.isPresent()) {
+				listener.get().onDeleteFailure(keys, e);
+			} else {
+				LOGGER.warn("Write behind of {} deletes failed", keys.size(), e);
+			}
+		}
+	}
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.configuration;
+
+import com.github.nwillc.simplecache.eviction.SEvictionPolicy;
+import com.github.nwillc.simplecache.integration.SWriteBehindListener;
+import com.github.nwillc.simplecache.serialization.SSerializer;
+
+import javax.cache.configuration.CompleteConfiguration;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A MutableConfiguration carrying the settings specific to an SCache. A plain MutableConfiguration passed to
+ * createCache gets the defaults found here.
+ *
+ * @param <K> cache's key type
+ * @param <V> cache's value type
+ */
+public class SCacheConfiguration<K, V> extends MutableConfiguration<K, V> {
+	public static final long serialVersionUID = 201902010001L;
+	public static final long UNBOUNDED = -1L;
+	public static final int DEFAULT_LOAD_BATCH_SIZE = 256;
+	public static final int DEFAULT_WRITE_BEHIND_BATCH_SIZE = 100;
+	public static final Duration DEFAULT_WRITE_BEHIND_DELAY = new Duration(TimeUnit.SECONDS, 1);
+	public static final int DEFAULT_EVENT_QUEUE_CAPACITY = 4096;
+	public static final Duration DEFAULT_EVENT_BLOCK_TIMEOUT = new Duration(TimeUnit.SECONDS, 1);
+	private long maximumSize = UNBOUNDED;
+	private Factory<SEvictionPolicy<K>> evictionPolicyFactory;
+	private Factory<SSerializer> serializerFactory;
+	private final Set<Class<?>> immutableTypes = new HashSet<>();
+	private boolean storeSerialized;
+	private Factory<Executor> executorFactory;
+	private int loadBatchSize = DEFAULT_LOAD_BATCH_SIZE;
+	private Duration refreshAfterWrite;
+	private boolean writeBehind;
+	private int writeBehindBatchSize = DEFAULT_WRITE_BEHIND_BATCH_SIZE;
+	private Duration writeBehindDelay = DEFAULT_WRITE_BEHIND_DELAY;
+	private Factory<SWriteBehindListener<K, V>> writeBehindListenerFactory;
+	private int eventQueueCapacity = DEFAULT_EVENT_QUEUE_CAPACITY;
+	private SEventOverflow eventOverflow = SEventOverflow.BLOCK;
+	private Duration eventBlockTimeout = DEFAULT_EVENT_BLOCK_TIMEOUT;
+	private boolean coalesceEvents;
+	private Factory<Executor> listenerExecutorFactory;
+	private boolean listenerVirtualThreads;
+	private int eventPartitions = 1;
+
+	public SCacheConfiguration() {
+		super();
+	}
+
+	@SuppressWarnings("unchecked")
+	public SCacheConfiguration(CompleteConfiguration<K, V> configuration) {
+		super(configuration);
+		if (configuration instanceof SCacheConfiguration) {
+			SCacheConfiguration<K, V> other = (SCacheConfiguration<K, V>) configuration;
+			maximumSize = other.maximumSize;
+			evictionPolicyFactory = other.evictionPolicyFactory;
+			serializerFactory = other.serializerFactory;
+			immutableTypes.addAll(other.immutableTypes);
+			storeSerialized = other.storeSerialized;
+			executorFactory = other.executorFactory;
+			loadBatchSize = other.loadBatchSize;
+			refreshAfterWrite = other.refreshAfterWrite;
+			writeBehind = other.writeBehind;
+			writeBehindBatchSize = other.writeBehindBatchSize;
+			writeBehindDelay = other.writeBehindDelay;
+			writeBehindListenerFactory = other.writeBehindListenerFactory;
+			eventQueueCapacity = other.eventQueueCapacity;
+			eventOverflow = other.eventOverflow;
+			eventBlockTimeout = other.eventBlockTimeout;
+			coalesceEvents = other.coalesceEvents;
+			listenerExecutorFactory = other.listenerExecutorFactory;
+			listenerVirtualThreads = other.listenerVirtualThreads;
+			eventPartitions = other.eventPartitions;
+		}
+	}
+
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Bound the number of entries the cache holds. Once the bound is passed entries are evicted.
+	 *
+	 * @param maximumSize the maximum entry count, or UNBOUNDED
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setMaximumSize(long maximumSize) {
+		if (maximumSize < 0 && maximumSize != UNBOUNDED) {
+			throw new IllegalArgumentException("Maximum size must be positive or UNBOUNDED.");
+		}
+		this.maximumSize = maximumSize;
+		return this;
+	}
+
+	public boolean isBounded() {
+		return maximumSize != UNBOUNDED;
+	}
+
+	public Factory<SEvictionPolicy<K>> getEvictionPolicyFactory() {
+		return evictionPolicyFactory;
+	}
+
+	/**
+	 * Set the factory for the eviction policy of a bounded cache. When not set a W-TinyLFU policy is used.
+	 *
+	 * @param factory the eviction policy factory, or null for the default
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	@SuppressWarnings("unchecked")
+	public SCacheConfiguration<K, V> setEvictionPolicyFactory(Factory<? extends SEvictionPolicy<K>> factory) {
+		this.evictionPolicyFactory = (Factory<SEvictionPolicy<K>>) factory;
+		return this;
+	}
+
+	public Factory<SSerializer> getSerializerFactory() {
+		return serializerFactory;
+	}
+
+	/**
+	 * Set the factory for the serializer a store by value cache copies keys and values with. When not set an
+	 * SBinarySerializer is used.
+	 *
+	 * @param factory the serializer factory, or null for the default
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	@SuppressWarnings("unchecked")
+	public SCacheConfiguration<K, V> setSerializerFactory(Factory<? extends SSerializer> factory) {
+		this.serializerFactory = (Factory<SSerializer>) factory;
+		return this;
+	}
+
+	public Set<Class<?>> getImmutableTypes() {
+		return Collections.unmodifiableSet(immutableTypes);
+	}
+
+	/**
+	 * Register a type whose instances never change, so a store by value cache can hold them by reference rather than
+	 * copy them. Strings, boxed primitives, UUIDs, enums and the java.time values are always treated so.
+	 *
+	 * @param type the immutable type, matched exactly
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> addImmutableType(Class<?> type) {
+		immutableTypes.add(type);
+		return this;
+	}
+
+	public boolean isStoreSerialized() {
+		return storeSerialized;
+	}
+
+	/**
+	 * Hold values of a store by value cache in their serialized form, decoding them on each read. This trades read
+	 * time for a smaller heap. Values of immutable types are still held as is.
+	 *
+	 * @param storeSerialized true to hold values serialized
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setStoreSerialized(boolean storeSerialized) {
+		this.storeSerialized = storeSerialized;
+		return this;
+	}
+
+	public Factory<Executor> getExecutorFactory() {
+		return executorFactory;
+	}
+
+	/**
+	 * Set the factory for the executor the cache runs background work such as loadAll on. When not set the common
+	 * fork join pool is used. The cache shuts down an ExecutorService the factory creates when it closes, so a factory
+	 * sharing one executor between caches should not return an ExecutorService.
+	 *
+	 * @param factory the executor factory, or null for the default
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	@SuppressWarnings("unchecked")
+	public SCacheConfiguration<K, V> setExecutorFactory(Factory<? extends Executor> factory) {
+		this.executorFactory = (Factory<Executor>) factory;
+		return this;
+	}
+
+	public int getLoadBatchSize() {
+		return loadBatchSize;
+	}
+
+	/**
+	 * Set how many keys loadAll passes to each CacheLoader.loadAll call. Batches are loaded in parallel.
+	 *
+	 * @param loadBatchSize the keys per batch
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setLoadBatchSize(int loadBatchSize) {
+		if (loadBatchSize < 1) {
+			throw new IllegalArgumentException("Load batch size must be positive.");
+		}
+		this.loadBatchSize = loadBatchSize;
+		return this;
+	}
+
+	public Duration getRefreshAfterWrite() {
+		return refreshAfterWrite;
+	}
+
+	/**
+	 * Reload entries through the CacheLoader once they are older than a duration. A read of such an entry returns the
+	 * current value and reloads it in the background, unlike expiry which makes the read miss.
+	 *
+	 * @param refreshAfterWrite how long after a write an entry is refreshed, or null to never refresh
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setRefreshAfterWrite(Duration refreshAfterWrite) {
+		this.refreshAfterWrite = refreshAfterWrite;
+		return this;
+	}
+
+	public boolean isWriteBehind() {
+		return writeBehind;
+	}
+
+	/**
+	 * Queue the writes and deletes of a write through cache and pass them to the CacheWriter in batches from a
+	 * background flusher, rather than calling the writer as each mutation is made.
+	 *
+	 * @param writeBehind true to write behind
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setWriteBehind(boolean writeBehind) {
+		this.writeBehind = writeBehind;
+		return this;
+	}
+
+	public int getWriteBehindBatchSize() {
+		return writeBehindBatchSize;
+	}
+
+	/**
+	 * Set the most mutations passed to each writeAll or deleteAll call. A full batch is flushed without waiting for
+	 * the delay.
+	 *
+	 * @param writeBehindBatchSize the mutations per batch
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setWriteBehindBatchSize(int writeBehindBatchSize) {
+		if (writeBehindBatchSize < 1) {
+			throw new IllegalArgumentException("Write behind batch size must be positive.");
+		}
+		this.writeBehindBatchSize = writeBehindBatchSize;
+		return this;
+	}
+
+	public Duration getWriteBehindDelay() {
+		return writeBehindDelay;
+	}
+
+	/**
+	 * Set the longest a mutation waits in the write behind queue when no batch fills.
+	 *
+	 * @param writeBehindDelay the delay between flushes
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setWriteBehindDelay(Duration writeBehindDelay) {
+		if (writeBehindDelay == null || writeBehindDelay.isZero() || writeBehindDelay.isEternal()) {
+			throw new IllegalArgumentException("Write behind delay must be a finite, non zero duration.");
+		}
+		this.writeBehindDelay = writeBehindDelay;
+		return this;
+	}
+
+	public Factory<SWriteBehindListener<K, V>> getWriteBehindListenerFactory() {
+		return writeBehindListenerFactory;
+	}
+
+	/**
+	 * Set the factory for the listener told of write behind failures. When not set failures are logged.
+	 *
+	 * @param factory the listener factory, or null to log failures
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	@SuppressWarnings("unchecked")
+	public SCacheConfiguration<K, V> setWriteBehindListenerFactory(Factory<? extends SWriteBehindListener<K, V>> factory) {
+		this.writeBehindListenerFactory = (Factory<SWriteBehindListener<K, V>>) factory;
+		return this;
+	}
+
+	public int getEventQueueCapacity() {
+		return eventQueueCapacity;
+	}
+
+	/**
+	 * Set how many undispatched events each asynchronous listener may have queued.
+	 *
+	 * @param eventQueueCapacity the events queued per listener
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setEventQueueCapacity(int eventQueueCapacity) {
+		if (eventQueueCapacity < 1) {
+			throw new IllegalArgumentException("Event queue capacity must be positive.");
+		}
+		this.eventQueueCapacity = eventQueueCapacity;
+		return this;
+	}
+
+	public SEventOverflow getEventOverflow() {
+		return eventOverflow;
+	}
+
+	/**
+	 * Set what happens to an event raised while a listener's queue is full. The default blocks until there is room.
+	 *
+	 * @param eventOverflow the overflow behavior
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setEventOverflow(SEventOverflow eventOverflow) {
+		if (eventOverflow == null) {
+			throw new NullPointerException("Event overflow can not be null.");
+		}
+		this.eventOverflow = eventOverflow;
+		return this;
+	}
+
+	public Duration getEventBlockTimeout() {
+		return eventBlockTimeout;
+	}
+
+	/**
+	 * Set the longest an event waits for room when the overflow blocks. An event still without room is dropped.
+	 *
+	 * @param eventBlockTimeout the longest wait for room
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setEventBlockTimeout(Duration eventBlockTimeout) {
+		if (eventBlockTimeout == null || eventBlockTimeout.isEternal()) {
+			throw new IllegalArgumentException("Event block timeout must be a finite duration.");
+		}
+		this.eventBlockTimeout = eventBlockTimeout;
+		return this;
+	}
+
+	public boolean isCoalesceEvents() {
+		return coalesceEvents;
+	}
+
+	/**
+	 * Merge the events raised for a key between dispatches into one net event for asynchronous listeners. A create
+	 * followed by updates arrives as a create of the final value, and a create followed by a removal not at all.
+	 * Synchronous listeners still see every event.
+	 *
+	 * @param coalesceEvents true to coalesce events
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setCoalesceEvents(boolean coalesceEvents) {
+		this.coalesceEvents = coalesceEvents;
+		return this;
+	}
+
+	public Factory<Executor> getListenerExecutorFactory() {
+		return listenerExecutorFactory;
+	}
+
+	/**
+	 * Set the factory for the executor asynchronous listeners are called on. Each listener handles one dispatch at a
+	 * time, so events reach it in order, but listeners run independently of each other. When not set listeners run on
+	 * daemon threads of the cache manager's own. As with the cache's executor, an ExecutorService the factory creates
+	 * is shut down when the cache closes.
+	 *
+	 * @param factory the executor factory, or null for the manager's listener threads
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	@SuppressWarnings("unchecked")
+	public SCacheConfiguration<K, V> setListenerExecutorFactory(Factory<? extends Executor> factory) {
+		this.listenerExecutorFactory = (Factory<Executor>) factory;
+		return this;
+	}
+
+	public boolean isListenerVirtualThreads() {
+		return listenerVirtualThreads;
+	}
+
+	/**
+	 * Call asynchronous listeners on virtual threads when the JDK supports them and no listener executor factory is
+	 * set. Older JDKs fall back to the cache manager's listener threads.
+	 *
+	 * @param listenerVirtualThreads true to use virtual threads
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setListenerVirtualThreads(boolean listenerVirtualThreads) {
+		this.listenerVirtualThreads = listenerVirtualThreads;
+		return this;
+	}
+
+	public int getEventPartitions() {
+		return eventPartitions;
+	}
+
+	/**
+	 * Split each asynchronous listener's events by key hash into partitions dispatched in parallel. Events for a key
+	 * still arrive in order, but a listener may be called concurrently for different keys so must be thread safe.
+	 * The event queue capacity is shared between the partitions.
+	 *
+	 * @param eventPartitions the number of partitions
+	 * @return the SCacheConfiguration to permit fluent-style method calls
+	 */
+	public SCacheConfiguration<K, V> setEventPartitions(int eventPartitions) {
+		if (eventPartitions < 1) {
+			throw new IllegalArgumentException("Event partitions must be positive.");
+		}
+		this.eventPartitions = eventPartitions;
+		return this;
+	}
+}
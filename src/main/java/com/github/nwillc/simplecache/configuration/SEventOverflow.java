@@ -0,0 +1,28 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.configuration;
+
+/**
+ * What a cache does when an asynchronous listener's event queue is full.
+ */
+public enum SEventOverflow {
+	/**
+	 * Block the thread raising the event until the queue has room, dropping the event if the block timeout passes
+	 * first. Events raised by the cache manager's own threads, such as expiry sweeps, are dropped without blocking.
+	 */
+	BLOCK,
+	/**
+	 * Drop the oldest queued event to make room.
+	 */
+	DROP_OLDEST,
+	/**
+	 * Drop the new event.
+	 */
+	DROP
+}
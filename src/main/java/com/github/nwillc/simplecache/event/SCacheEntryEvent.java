@@ -11,10 +11,9 @@ package com.github.nwillc.simplecache.event;
 import javax.cache.Cache;
 import javax.cache.event.CacheEntryEvent;
 import javax.cache.event.EventType;
-import java.util.Optional;
 
 public class SCacheEntryEvent<K, V> extends CacheEntryEvent<K, V> {
-    private final Optional<V> old;
+    private final V old;
     private final K key;
     private final V value;
 
@@ -26,17 +25,17 @@ public class SCacheEntryEvent<K, V> extends CacheEntryEvent<K, V> {
         super(source, eventType);
         this.key = key;
         this.value = value;
-        this.old = Optional.ofNullable(old);
+        this.old = old;
     }
 
     @Override
     public V getOldValue() {
-        return old.orElse(null);
+        return old;
     }
 
     @Override
     public boolean isOldValueAvailable() {
-        return old.isPresent();
+        return old != null;
     }
 
     @Override
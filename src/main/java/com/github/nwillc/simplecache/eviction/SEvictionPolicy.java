@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+/**
+ * The policy a size bounded SCache consults to pick which key to evict. The cache notifies the policy as keys are
+ * added, read and removed, and asks for a victim while it is over its maximum size. Calls are made holding the
+ * cache's eviction lock, so implementations need not be thread safe.
+ *
+ * @param <K> cache's key type
+ */
+public interface SEvictionPolicy<K> {
+	/**
+	 * A key was written. May be called for a key already known to the policy when its value is replaced.
+	 *
+	 * @param key the key written
+	 */
+	void onAdd(K key);
+
+	/**
+	 * A key was read. Reads are reported on a best effort basis and may be dropped under contention.
+	 *
+	 * @param key the key read
+	 */
+	void onAccess(K key);
+
+	/**
+	 * A key left the cache, either removed, expired or evicted.
+	 *
+	 * @param key the key removed
+	 */
+	void onRemove(K key);
+
+	/**
+	 * Select the key to evict. The key remains known to the policy until onRemove is called for it.
+	 *
+	 * @return the key to evict, null if the policy holds no keys
+	 */
+	K victim();
+
+	/**
+	 * Forget all keys.
+	 */
+	void clear();
+}
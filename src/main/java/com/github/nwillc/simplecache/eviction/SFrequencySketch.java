@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often keys have been seen. Counters are halved once enough
+ * samples arrive so that the history ages. Not thread safe, callers guard it.
+ *
+ * @param <E> the element type
+ */
+public final class SFrequencySketch<E> {
+	private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final long ONE_MASK = 0x1111111111111111L;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int size;
+
+	public SFrequencySketch(long maximumSize) {
+		int capacity = (int) Math.min(Math.max(maximumSize, 8L), MAXIMUM_CAPACITY);
+		table = new long[Integer.highestOneBit(capacity - 1) << 1];
+		tableMask = table.length - 1;
+		sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * The estimated number of times the element was seen, at most 15.
+	 *
+	 * @param element the element to estimate
+	 * @return the estimated frequency
+	 */
+	public int frequency(E element) {
+		int hash = spread(element.hashCode());
+		int start = (hash & 3) << 2;
+		int frequency = Integer.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			int index = indexOf(hash, i);
+			int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Record an occurrence of the element, aging all counters if the sample size is reached.
+	 *
+	 * @param element the element seen
+	 */
+	public void increment(E element) {
+		int hash = spread(element.hashCode());
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+		if (added && ++size == sampleSize) {
+			reset();
+		}
+	}
+
+	private boolean incrementAt(int index, int counter) {
+		int offset = counter << 2;
+		long mask = 0xfL << offset;
+		if ((table[index] & mask) != mask) {
+			table[index] += 1L << offset;
+			return true;
+		}
+		return false;
+	}
+
+	private void reset() {
+		int count = 0;
+		for (int i = 0; i < table.length; i++) {
+			count += Long.bitCount(table[i] & ONE_MASK);
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		size = (size >>> 1) - (count >>> 2);
+	}
+
+	private int indexOf(int item, int i) {
+		long hash = (item + SEEDS[i]) * SEEDS[i];
+		hash += hash >>> 32;
+		return ((int) hash) & tableMask;
+	}
+
+	private static int spread(int hash) {
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		return (hash >>> 16) ^ hash;
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Evict the key read or written the fewest times, the least recent of those on a tie.
+ *
+ * @param <K> cache's key type
+ */
+public class SLfuEvictionPolicy<K> implements SEvictionPolicy<K> {
+	private final Map<K, Long> counts = new HashMap<>();
+	private final TreeMap<Long, LinkedHashSet<K>> buckets = new TreeMap<>();
+
+	@Override
+	public void onAdd(K key) {
+		increment(key, true);
+	}
+
+	@Override
+	public void onAccess(K key) {
+		increment(key, false);
+	}
+
+	@Override
+	public void onRemove(K key) {
+		Long count = counts.remove(key);
+		if (count != null) {
+			unlink(key, count);
+		}
+	}
+
+	@Override
+	public K victim() {
+		Map.Entry<Long, LinkedHashSet<K>> lowest = buckets.firstEntry();
+		return lowest == null ? null : lowest.getValue().iterator().next();
+	}
+
+	@Override
+	public void clear() {
+		counts.clear();
+		buckets.clear();
+	}
+
+	private void increment(K key, boolean add) {
+		Long count = counts.get(key);
+		if (count == null && !add) {
+			return;
+		}
+		long next = 1L;
+		if (count != null) {
+			unlink(key, count);
+			next = count + 1;
+		}
+		counts.put(key, next);
+		buckets.computeIfAbsent(next, c -> new LinkedHashSet<>()).add(key);
+	}
+
+	private void unlink(K key, long count) {
+		LinkedHashSet<K> bucket = buckets.get(count);
+		bucket.remove(key);
+		if (bucket.isEmpty()) {
+			buckets.remove(count);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Evict the least recently read or written key.
+ *
+ * @param <K> cache's key type
+ */
+public class SLruEvictionPolicy<K> implements SEvictionPolicy<K> {
+	private final LinkedHashSet<K> keys = new LinkedHashSet<>();
+
+	@Override
+	public void onAdd(K key) {
+		keys.remove(key);
+		keys.add(key);
+	}
+
+	@Override
+	public void onAccess(K key) {
+		if (keys.remove(key)) {
+			keys.add(key);
+		}
+	}
+
+	@Override
+	public void onRemove(K key) {
+		keys.remove(key);
+	}
+
+	@Override
+	public K victim() {
+		Iterator<K> iterator = keys.iterator();
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	@Override
+	public void clear() {
+		keys.clear();
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Approximate LRU by sampling. A handful of keys are picked at random and the least recently used of them is the
+ * victim. No ordering is maintained, so reads and writes are cheap regardless of cache size.
+ *
+ * @param <K> cache's key type
+ */
+public class SSampledEvictionPolicy<K> implements SEvictionPolicy<K> {
+	public static final int DEFAULT_SAMPLE_SIZE = 5;
+	private final int sampleSize;
+	private final List<K> keys = new ArrayList<>();
+	private final Map<K, Slot> slots = new HashMap<>();
+	private long tick;
+
+	public SSampledEvictionPolicy() {
+		this(DEFAULT_SAMPLE_SIZE);
+	}
+
+	public SSampledEvictionPolicy(int sampleSize) {
+		if (sampleSize < 1) {
+			throw new IllegalArgumentException("Sample size must be positive.");
+		}
+		this.sampleSize = sampleSize;
+	}
+
+	@Override
+	public void onAdd(K key) {
+		Slot slot = slots.get(key);
+		if (slot == null) {
+			slot = new Slot(keys.size());
+			slots.put(key, slot);
+			keys.add(key);
+		}
+		slot.used = ++tick;
+	}
+
+	@Override
+	public void onAccess(K key) {
+		Slot slot = slots.get(key);
+		if (slot != null) {
+			slot.used = ++tick;
+		}
+	}
+
+	@Override
+	public void onRemove(K key) {
+		Slot slot = slots.remove(key);
+		if (slot == null) {
+			return;
+		}
+		K last = keys.remove(keys.size() - 1);
+		if (slot.index < keys.size()) {
+			keys.set(slot.index, last);
+			slots.get(last).index = slot.index;
+		}
+	}
+
+	@Override
+	public K victim() {
+		if (keys.isEmpty()) {
+			return null;
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		K victim = null;
+		long oldest = Long.MAX_VALUE;
+		for (int i = 0; i < sampleSize; i++) {
+			K key = keys.get(random.nextInt(keys.size()));
+			long used = slots.get(key).used;
+			if (used < oldest) {
+				oldest = used;
+				victim = key;
+			}
+		}
+		return victim;
+	}
+
+	@Override
+	public void clear() {
+		keys.clear();
+		slots.clear();
+	}
+
+	private static final class Slot {
+		int index;
+		long used;
+
+		Slot(int index) {
+			this.index = index;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * A W-TinyLFU eviction policy. New keys enter a small LRU window, keys leaving the window join the probation
+ * segment of a segmented LRU main region, and a key read while on probation is promoted to the protected segment.
+ * When the cache is over its bound the newest key admitted from the window competes with the probation LRU key and
+ * whichever a frequency sketch has seen less often is the victim, so a scan can not flush frequently used keys.
+ *
+ * @param <K> cache's key type
+ */
+public class STinyLfuEvictionPolicy<K> implements SEvictionPolicy<K> {
+	private static final double WINDOW_RATIO = 0.01;
+	private static final double PROTECTED_RATIO = 0.8;
+	private final SFrequencySketch<K> sketch;
+	private final Map<K, Region> regions = new HashMap<>();
+	private final LinkedHashSet<K> window = new LinkedHashSet<>();
+	private final LinkedHashSet<K> probation = new LinkedHashSet<>();
+	private final LinkedHashSet<K> protectedSegment = new LinkedHashSet<>();
+	private final long maximumWindow;
+	private final long maximumProtected;
+	private K candidate;
+
+	public STinyLfuEvictionPolicy(long maximumSize) {
+		sketch = new SFrequencySketch<>(maximumSize);
+		maximumWindow = Math.max(1L, (long) (maximumSize * WINDOW_RATIO));
+		maximumProtected = (long) ((maximumSize - maximumWindow) * PROTECTED_RATIO);
+	}
+
+	@Override
+	public void onAdd(K key) {
+		sketch.increment(key);
+		if (regions.containsKey(key)) {
+			touch(key);
+			return;
+		}
+		regions.put(key, Region.WINDOW);
+		window.add(key);
+		if (window.size() > maximumWindow) {
+			candidate = first(window);
+			move(candidate, Region.PROBATION);
+		}
+	}
+
+	@Override
+	public void onAccess(K key) {
+		sketch.increment(key);
+		touch(key);
+	}
+
+	@Override
+	public void onRemove(K key) {
+		Region region = regions.remove(key);
+		if (region != null) {
+			segment(region).remove(key);
+		}
+		if (key.equals(candidate)) {
+			candidate = null;
+		}
+	}
+
+	@Override
+	public K victim() {
+		K contender = candidate;
+		candidate = null;
+		K victim = firstOther(probation, contender);
+		if (victim == null) {
+			victim = first(protectedSegment);
+		}
+		if (victim == null) {
+			victim = first(window);
+		}
+		if (victim == null || contender == null) {
+			return victim == null ? contender : victim;
+		}
+		return sketch.frequency(contender) > sketch.frequency(victim) ? victim : contender;
+	}
+
+	@Override
+	public void clear() {
+		regions.clear();
+		window.clear();
+		probation.clear();
+		protectedSegment.clear();
+		candidate = null;
+	}
+
+	private void touch(K key) {
+		Region region = regions.get(key);
+		if (region == null) {
+			return;
+		}
+		if (region == Region.PROBATION) {
+			move(key, Region.PROTECTED);
+			while (protectedSegment.size() > maximumProtected) {
+				move(first(protectedSegment), Region.PROBATION);
+			}
+		} else {
+			LinkedHashSet<K> segment = segment(region);
+			segment.remove(key);
+			segment.add(key);
+		}
+	}
+
+	private void move(K key, Region to) {
+		segment(regions.put(key, to)).remove(key);
+		segment(to).add(key);
+	}
+
+	private LinkedHashSet<K> segment(Region region) {
+		switch (region) {
+			case WINDOW:
+				return window;
+			case PROBATION:
+				return probation;
+			default:
+				return protectedSegment;
+		}
+	}
+
+	private static <E> E first(LinkedHashSet<E> set) {
+		Iterator<E> iterator = set.iterator();
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	private static <E> E firstOther(LinkedHashSet<E> set, E other) {
+		for (E element : set) {
+			if (!element.equals(other)) {
+				return element;
+			}
+		}
+		return null;
+	}
+
+	private enum Region {
+		WINDOW, PROBATION, PROTECTED
+	}
+}
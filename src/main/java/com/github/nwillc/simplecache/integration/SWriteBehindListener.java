@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.integration;
+
+import javax.cache.Cache;
+import java.util.Collection;
+
+/**
+ * Told when a write-behind cache's CacheWriter fails to write or delete a batch. By the time this is called the
+ * cache itself already holds the mutations, only the writer's copy is out of step.
+ *
+ * @param <K> cache's key type
+ * @param <V> cache's value type
+ */
+public interface SWriteBehindListener<K, V> {
+	/**
+	 * A writeAll call failed.
+	 *
+	 * @param entries the entries the writer did not write
+	 * @param exception the writer's exception
+	 */
+	void onWriteFailure(Collection<Cache.Entry<? extends K, ? extends V>> entries, Exception exception);
+
+	/**
+	 * A deleteAll call failed.
+	 *
+	 * @param keys the keys the writer did not delete
+	 * @param exception the writer's exception
+	 */
+	void onDeleteFailure(Collection<?> keys, Exception exception);
+}
@@ -9,7 +9,11 @@
 package com.github.nwillc.simplecache.managment;
 
 import javax.cache.management.CacheStatisticsMXBean;
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 /**
  * A bean that stores statics of a running cache is statistics are enabled.
@@ -24,6 +28,10 @@ public class SCacheStatisticsMXBean implements CacheStatisticsMXBean {
 	private final AtomicLong readThrough = new AtomicLong(0L);
 	private final AtomicLong writeThrough = new AtomicLong(0L);
 	private final AtomicLong removeThrough = new AtomicLong(0L);
+	private final AtomicLong writeBehindFailures = new AtomicLong(0L);
+	private final AtomicLong eventsDropped = new AtomicLong(0L);
+	private volatile LongSupplier eventQueueDepth = () -> 0L;
+	private volatile Supplier<Map<String, Float>> listenerDispatchTimes = Collections::emptyMap;
 
 	@Override
 	public void clear() {
@@ -44,6 +52,10 @@ public class SCacheStatisticsMXBean implements CacheStatisticsMXBean {
 		return cacheHits.incrementAndGet();
 	}
 
+	public long hit(long count) {
+		return cacheHits.addAndGet(count);
+	}
+
 	@Override
 	public float getCacheHitPercentage() {
 		return 0;
@@ -58,6 +70,10 @@ public class SCacheStatisticsMXBean implements CacheStatisticsMXBean {
 		return cacheMisses.incrementAndGet();
 	}
 
+	public long miss(long count) {
+		return cacheMisses.addAndGet(count);
+	}
+
 	@Override
 	public float getCacheMissPercentage() {
 		return 0;
@@ -72,6 +88,10 @@ public class SCacheStatisticsMXBean implements CacheStatisticsMXBean {
 		return cacheGets.incrementAndGet();
 	}
 
+	public long get(long count) {
+		return cacheGets.addAndGet(count);
+	}
+
 	@Override
 	public long getCachePuts() {
 		return cachePuts.get();
@@ -81,6 +101,10 @@ public class SCacheStatisticsMXBean implements CacheStatisticsMXBean {
 		return cachePuts.incrementAndGet();
 	}
 
+	public long put(long count) {
+		return cachePuts.addAndGet(count);
+	}
+
 	@Override
 	public long getCacheRemovals() {
 		return cacheRemovals.get();
@@ -90,6 +114,10 @@ public class SCacheStatisticsMXBean implements CacheStatisticsMXBean {
 		return cacheRemovals.incrementAndGet();
 	}
 
+	public long remove(long count) {
+		return cacheRemovals.addAndGet(count);
+	}
+
 	@Override
 	public long getCacheEvictions() {
 		return cacheEvictions.get();
@@ -138,6 +166,43 @@ public class SCacheStatisticsMXBean implements CacheStatisticsMXBean {
 		return removeThrough.incrementAndGet();
 	}
 
+	public long getWriteBehindFailures() {
+		return writeBehindFailures.get();
+	}
+
+	public long writeBehindFailure(long count) {
+		return writeBehindFailures.addAndGet(count);
+	}
+
+	public long getEventsDropped() {
+		return eventsDropped.get();
+	}
+
+	public long eventDropped() {
+		return eventsDropped.incrementAndGet();
+	}
+
+	public long getEventQueueDepth() {
+		return eventQueueDepth.getAsLong();
+	}
+
+	public void setEventQueueDepth(LongSupplier eventQueueDepth) {
+		this.eventQueueDepth = eventQueueDepth;
+	}
+
+	/**
+	 * The average time, in microseconds, each asynchronous listener has taken to handle a dispatch.
+	 *
+	 * @return the average dispatch times by listener
+	 */
+	public Map<String, Float> getAverageListenerDispatchTimes() {
+		return listenerDispatchTimes.get();
+	}
+
+	public void setListenerDispatchTimes(Supplier<Map<String, Float>> listenerDispatchTimes) {
+		this.listenerDispatchTimes = listenerDispatchTimes;
+	}
+
 	@Override
 	public String toString() {
 		return "SCacheStatisticsMXBean{" +
@@ -150,6 +215,9 @@ public class SCacheStatisticsMXBean implements CacheStatisticsMXBean {
 				", readThrough=" + readThrough.get() +
 				", writeThrough=" + writeThrough.get() +
 				", removeThrough=" + removeThrough.get() +
+				", writeBehindFailures=" + writeBehindFailures.get() +
+				", eventsDropped=" + eventsDropped.get() +
+				", eventQueueDepth=" + getEventQueueDepth() +
 				'}';
 	}
 }
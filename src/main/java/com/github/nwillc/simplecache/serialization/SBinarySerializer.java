@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A compact binary codec for strings, boxed primitives and byte arrays, the types most often used as keys and values.
+ * Each encoding is a one byte type tag followed by the value. Any other type is tagged and written with Java
+ * serialization. Encoding uses a per-thread buffer, and copies are decoded straight from it.
+ */
+public class SBinarySerializer implements SSerializer {
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte INTEGER = 2;
+	private static final byte LONG = 3;
+	private static final byte DOUBLE = 4;
+	private static final byte FLOAT = 5;
+	private static final byte SHORT = 6;
+	private static final byte BYTE = 7;
+	private static final byte CHARACTER = 8;
+	private static final byte BOOLEAN = 9;
+	private static final byte BYTES = 10;
+	private static final byte OBJECT = 11;
+	private static final ThreadLocal<SBuffer> BUFFER = ThreadLocal.withInitial(SBuffer::new);
+	private final SJavaSerializer fallback = new SJavaSerializer();
+
+	@Override
+	public byte[] serialize(Object object) throws IOException {
+		SBuffer buffer = BUFFER.get();
+		try {
+			write(buffer, object);
+			return buffer.toByteArray();
+		} finally {
+			buffer.release();
+		}
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		return read(bytes, bytes.length);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T copy(T object) throws IOException, ClassNotFoundException {
+		SBuffer buffer = BUFFER.get();
+		try {
+			write(buffer, object);
+			return (T) read(buffer.array(), buffer.size());
+		} finally {
+			buffer.release();
+		}
+	}
+
+	private void write(SBuffer buffer, Object object) throws IOException {
+		if (object == null) {
+			buffer.write(NULL);
+			return;
+		}
+		Class<?> type = object.getClass();
+		if (type == String.class) {
+			byte[] bytes = ((String) object).getBytes(StandardCharsets.UTF_8);
+			buffer.write(STRING);
+			buffer.writeInt(bytes.length);
+			buffer.write(bytes, 0, bytes.length);
+		} else if (type == Integer.class) {
+			buffer.write(INTEGER);
+			buffer.writeInt((Integer) object);
+		} else if (type == Long.class) {
+			buffer.write(LONG);
+			buffer.writeLong((Long) object);
+		} else if (type == Double.class) {
+			buffer.write(DOUBLE);
+			buffer.writeLong(Double.doubleToRawLongBits((Double) object));
+		} else if (type == Float.class) {
+			buffer.write(FLOAT);
+			buffer.writeInt(Float.floatToRawIntBits((Float) object));
+		} else if (type == Short.class) {
+			buffer.write(SHORT);
+			buffer.writeInt((Short) object);
+		} else if (type == Byte.class) {
+			buffer.write(BYTE);
+			buffer.write((Byte) object);
+		} else if (type == Character.class) {
+			buffer.write(CHARACTER);
+			buffer.writeInt((Character) object);
+		} else if (type == Boolean.class) {
+			buffer.write(BOOLEAN);
+			buffer.write((Boolean) object ? 1 : 0);
+		} else if (type == byte[].class) {
+			byte[] bytes = (byte[]) object;
+			buffer.write(BYTES);
+			buffer.writeInt(bytes.length);
+			buffer.write(bytes, 0, bytes.length);
+		} else {
+			buffer.write(OBJECT);
+			fallback.write(buffer, object);
+		}
+	}
+
+	private Object read(byte[] bytes, int length) throws IOException, ClassNotFoundException {
+		if (length < 1) {
+			throw new StreamCorruptedException("No type tag.");
+		}
+		switch (bytes[0]) {
+			case NULL:
+				return null;
+			case STRING:
+				return new String(bytes, 5, readInt(bytes, 1), StandardCharsets.UTF_8);
+			case INTEGER:
+				return readInt(bytes, 1);
+			case LONG:
+				return readLong(bytes, 1);
+			case DOUBLE:
+				return Double.longBitsToDouble(readLong(bytes, 1));
+			case FLOAT:
+				return Float.intBitsToFloat(readInt(bytes, 1));
+			case SHORT:
+				return (short) readInt(bytes, 1);
+			case BYTE:
+				return bytes[1];
+			case CHARACTER:
+				return (char) readInt(bytes, 1);
+			case BOOLEAN:
+				return bytes[1] != 0;
+			case BYTES:
+				byte[] copy = new byte[readInt(bytes, 1)];
+				System.arraycopy(bytes, 5, copy, 0, copy.length);
+				return copy;
+			case OBJECT:
+				return fallback.read(new ByteArrayInputStream(bytes, 1, length - 1));
+			default:
+				throw new StreamCorruptedException("Unknown type tag " + bytes[0] + '.');
+		}
+	}
+
+	private static int readInt(byte[] bytes, int offset) {
+		return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16 |
+				(bytes[offset + 2] & 0xff) << 8 | bytes[offset + 3] & 0xff;
+	}
+
+	private static long readLong(byte[] bytes, int offset) {
+		return (long) readInt(bytes, offset) << 32 | readInt(bytes, offset + 4) & 0xffffffffL;
+	}
+}
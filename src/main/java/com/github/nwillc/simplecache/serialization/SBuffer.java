@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A reusable output buffer, held one per thread so encoding does not allocate a fresh array per call. Buffers grown
+ * past a limit by a large object are dropped on release rather than retained.
+ */
+final class SBuffer extends ByteArrayOutputStream {
+	private static final int INITIAL_SIZE = 256;
+	private static final int MAXIMUM_RETAINED = 64 * 1024;
+
+	SBuffer() {
+		super(INITIAL_SIZE);
+	}
+
+	void writeInt(int value) {
+		write(value >>> 24);
+		write(value >>> 16);
+		write(value >>> 8);
+		write(value);
+	}
+
+	void writeLong(long value) {
+		writeInt((int) (value >>> 32));
+		writeInt((int) value);
+	}
+
+	byte[] array() {
+		return buf;
+	}
+
+	ByteArrayInputStream input() {
+		return new ByteArrayInputStream(buf, 0, count);
+	}
+
+	void release() {
+		reset();
+		if (buf.length > MAXIMUM_RETAINED) {
+			buf = new byte[INITIAL_SIZE];
+		}
+	}
+}
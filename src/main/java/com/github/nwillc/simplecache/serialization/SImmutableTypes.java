@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.serialization;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The types a store by value cache may hold by reference because their instances can not change. Types match
+ * exactly, so a mutable subclass of a registered type is still copied. Enum constants are always immutable here, as
+ * copying one yields the same constant.
+ */
+public final class SImmutableTypes {
+	/**
+	 * The JDK types known to be immutable.
+	 */
+	public static final Set<Class<?>> BUILT_IN = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+			Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class,
+			Instant.class, Duration.class, Period.class, LocalDate.class, LocalTime.class, LocalDateTime.class,
+			OffsetTime.class, OffsetDateTime.class, ZonedDateTime.class, ZoneOffset.class,
+			Year.class, YearMonth.class, MonthDay.class)));
+	private final Set<Class<?>> types;
+
+	/**
+	 * The built in types plus any additional types.
+	 *
+	 * @param additional further types to treat as immutable
+	 */
+	public SImmutableTypes(Collection<Class<?>> additional) {
+		Set<Class<?>> all = new HashSet<>(BUILT_IN);
+		all.addAll(additional);
+		types = all;
+	}
+
+	/**
+	 * Can the object be shared rather than copied.
+	 *
+	 * @param object the object, may be null
+	 * @return true if the object is null or of an immutable type
+	 */
+	public boolean isImmutable(Object object) {
+		return object == null || types.contains(object.getClass()) || object instanceof Enum;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Standard Java serialization, encoding into a per-thread buffer and remembering the classes it has resolved so
+ * reading does not search the class loaders for every object. Classes are resolved through, and remembered per,
+ * the reading thread's context class loader, so applications with same named classes each get their own. Loaders and
+ * their classes are only weakly held, so an undeployed application's loader can still be collected.
+ */
+public class SJavaSerializer implements SSerializer {
+	private static final ThreadLocal<SBuffer> BUFFER = ThreadLocal.withInitial(SBuffer::new);
+	private final Map<ClassLoader, ConcurrentMap<String, WeakReference<Class<?>>>> classes = new WeakHashMap<>();
+
+	@Override
+	public byte[] serialize(Object object) throws IOException {
+		SBuffer buffer = BUFFER.get();
+		try {
+			write(buffer, object);
+			return buffer.toByteArray();
+		} finally {
+			buffer.release();
+		}
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		return read(new ByteArrayInputStream(bytes));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T copy(T object) throws IOException, ClassNotFoundException {
+		SBuffer buffer = BUFFER.get();
+		try {
+			write(buffer, object);
+			return (T) read(buffer.input());
+		} finally {
+			buffer.release();
+		}
+	}
+
+	void write(SBuffer buffer, Object object) throws IOException {
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(object);
+		}
+	}
+
+	Object read(InputStream input) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new CachingObjectInputStream(input)) {
+			return in.readObject();
+		}
+	}
+
+	private class CachingObjectInputStream extends ObjectInputStream {
+		CachingObjectInputStream(InputStream input) throws IOException {
+			super(input);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			ClassLoader loader = Thread.currentThread().getContextClassLoader();
+			if (loader == null) {
+				return super.resolveClass(desc);
+			}
+			ConcurrentMap<String, WeakReference<Class<?>>> resolved = resolved(loader);
+			WeakReference<Class<?>> cached = resolved.get(desc.getName());
+			Class<?> type = cached == null ? null : cached.get();
+			if (type != null) {
+				return type;
+			}
+			try {
+				type = Class.forName(desc.getName(), false, loader);
+			} catch (ClassNotFoundException e) {
+				// Found elsewhere, so not a class of this loader to remember
+				return super.resolveClass(desc);
+			}
+			resolved.put(desc.getName(), new WeakReference<>(type));
+			return type;
+		}
+	}
+
+	private ConcurrentMap<String, WeakReference<Class<?>>> resolved(ClassLoader loader) {
+		synchronized (classes) {
+			return classes.computeIfAbsent(loader, l -> new ConcurrentHashMap<>());
+		}
+	}
+
+	// Visible for testing
+	boolean isRemembered(ClassLoader loader, String name) {
+		WeakReference<Class<?>> cached = resolved(loader).get(name);
+		return cached != null && cached.get() != null;
+	}
+}
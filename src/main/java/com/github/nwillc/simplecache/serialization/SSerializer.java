@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.serialization;
+
+import java.io.IOException;
+
+/**
+ * Converts keys and values to and from bytes, and copies them, for caches that store by value. Implementations are
+ * shared by every thread using a cache and so must be thread safe.
+ */
+public interface SSerializer {
+	/**
+	 * Encode an object.
+	 *
+	 * @param object the object, may be null
+	 * @return the encoded bytes
+	 * @throws IOException if the object can not be encoded
+	 */
+	byte[] serialize(Object object) throws IOException;
+
+	/**
+	 * Decode bytes produced by serialize.
+	 *
+	 * @param bytes the encoded bytes
+	 * @return the decoded object
+	 * @throws IOException if the bytes can not be read
+	 * @throws ClassNotFoundException if the class of an encoded object can not be found
+	 */
+	Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException;
+
+	/**
+	 * Make an independent copy of an object. The default round trips the object through serialize and deserialize,
+	 * implementations may do so without the intermediate array.
+	 *
+	 * @param object the object to copy, may be null
+	 * @param <T> the object's type
+	 * @return the copy
+	 * @throws IOException if the object can not be encoded
+	 * @throws ClassNotFoundException if the class of an encoded object can not be found
+	 */
+	@SuppressWarnings("unchecked")
+	default <T> T copy(T object) throws IOException, ClassNotFoundException {
+		return (T) deserialize(serialize(object));
+	}
+}
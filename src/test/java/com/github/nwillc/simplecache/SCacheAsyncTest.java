@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import com.github.nwillc.simplecache.configuration.SCacheConfiguration;
+import com.github.nwillc.simplecache.integration.SCacheLoader;
+import com.github.nwillc.simplecache.integration.SCacheWriter;
+import com.github.nwillc.simplecache.spi.SCachingProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import javax.cache.spi.CachingProvider;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+import static org.assertj.core.data.MapEntry.entry;
+
+@SuppressWarnings("unchecked")
+public class SCacheAsyncTest {
+	private static final String NAME = "hoard";
+	private final Map<Long, String> backingStore = new ConcurrentHashMap<>();
+	private final List<Runnable> tasks = new ArrayList<>();
+	private final AtomicInteger loads = new AtomicInteger();
+	private CacheManager cacheManager;
+	private SCache<Long, String> cache;
+
+	@Before
+	public void setUp() throws Exception {
+		CachingProvider cachingProvider = Caching.getCachingProvider(SCachingProvider.class.getCanonicalName());
+		cacheManager = cachingProvider.getCacheManager();
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setWriteThrough(true);
+		configuration.setExecutorFactory(() -> (Executor) tasks::add);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<>(k -> {
+			loads.incrementAndGet();
+			return backingStore.get(k);
+		}));
+		configuration.setCacheWriterFactory(() -> new SCacheWriter<Long, String>(backingStore::remove,
+				e -> backingStore.put(e.getKey(), e.getValue())));
+		cache = cacheManager.createCache(NAME, configuration).unwrap(SCache.class);
+	}
+
+	@Test
+	public void shouldCompleteHitsImmediately() throws Exception {
+		cache.put(0L, "0");
+		CompletableFuture<String> future = cache.getAsync(0L);
+		assertThat(future.isDone()).isTrue();
+		assertThat(future.get()).isEqualTo("0");
+		assertThat(tasks).isEmpty();
+	}
+
+	@Test
+	public void shouldLoadMissesOnExecutor() throws Exception {
+		backingStore.put(0L, "0");
+		CompletableFuture<String> first = cache.getAsync(0L);
+		CompletableFuture<String> second = cache.getAsync(0L);
+		assertThat(first.isDone()).isFalse();
+		assertThat(tasks).hasSize(1);
+		tasks.remove(0).run();
+		assertThat(first.get()).isEqualTo("0");
+		assertThat(second.get()).isEqualTo("0");
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(cache.getAsync(0L).isDone()).isTrue();
+	}
+
+	@Test
+	public void shouldFailLoad() throws Exception {
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setExecutorFactory(() -> (Executor) tasks::add);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> {
+			throw new IllegalStateException("pop!");
+		}));
+		SCache<Long, String> failing = cacheManager.createCache(NAME + "failing", configuration).unwrap(SCache.class);
+		CompletableFuture<String> future = failing.getAsync(0L);
+		tasks.remove(0).run();
+		assertThat(future.isCompletedExceptionally()).isTrue();
+	}
+
+	@Test
+	public void shouldGetAllAsync() throws Exception {
+		cache.put(0L, "0");
+		backingStore.put(1L, "1");
+		Set<Long> keys = new HashSet<>();
+		keys.add(0L);
+		assertThat(cache.getAllAsync(keys).get()).containsOnly(entry(0L, "0"));
+		keys.add(1L);
+		CompletableFuture<Map<Long, String>> future = cache.getAllAsync(keys);
+		assertThat(future.isDone()).isFalse();
+		tasks.remove(0).run();
+		assertThat(future.get()).containsOnly(entry(0L, "0"), entry(1L, "1"));
+	}
+
+	@Test
+	public void shouldPutAndRemoveAsync() throws Exception {
+		CompletableFuture<Void> put = cache.putAsync(0L, "0");
+		assertThat(put.isDone()).isFalse();
+		tasks.remove(0).run();
+		assertThat(put.isDone()).isTrue();
+		assertThat(backingStore).containsOnly(entry(0L, "0"));
+		CompletableFuture<Boolean> remove = cache.removeAsync(0L);
+		tasks.remove(0).run();
+		assertThat(remove.get()).isTrue();
+		assertThat(backingStore).isEmpty();
+	}
+
+	@Test
+	public void shouldInvokeAsync() throws Exception {
+		cache.getConfiguration(SCacheConfiguration.class).setWriteThrough(false);
+		cache.put(0L, "0");
+		CompletableFuture<String> future = cache.invokeAsync(0L, (entry, arguments) -> entry.getValue() + arguments[0], "1");
+		assertThat(future.isDone()).isTrue();
+		assertThat(future.get()).isEqualTo("01");
+		backingStore.put(1L, "1");
+		future = cache.invokeAsync(1L, (entry, arguments) -> entry.getValue());
+		assertThat(future.isDone()).isFalse();
+		tasks.remove(0).run();
+		assertThat(future.get()).isEqualTo("1");
+	}
+
+	@Test
+	public void shouldInvokeAsyncOnExpiredEntry() throws Exception {
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(Duration.ONE_MINUTE));
+		configuration.setExecutorFactory(() -> (Executor) tasks::add);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<>(backingStore::get));
+		SCache<Long, String> expiring = cacheManager.createCache(NAME + "expiring", configuration).unwrap(SCache.class);
+		AtomicLong time = new AtomicLong(0L);
+		expiring.setClock(time::get);
+		expiring.put(0L, "0");
+		backingStore.put(0L, "loaded");
+		time.set(TimeUnit.MINUTES.toNanos(2));
+		CompletableFuture<String> future = expiring.invokeAsync(0L, (entry, arguments) -> entry.getValue());
+		assertThat(future.isDone()).isFalse();
+		tasks.remove(0).run();
+		assertThat(future.get()).isEqualTo("loaded");
+	}
+
+	@Test
+	public void shouldFailWhenClosed() throws Exception {
+		cache.close();
+		assertThatThrownBy(() -> cache.getAsync(0L)).isInstanceOf(IllegalStateException.class);
+	}
+}
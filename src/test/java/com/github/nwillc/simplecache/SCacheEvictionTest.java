@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import com.github.nwillc.simplecache.configuration.SCacheConfiguration;
+import com.github.nwillc.simplecache.eviction.SFifoEvictionPolicy;
+import com.github.nwillc.simplecache.eviction.SLruEvictionPolicy;
+import com.github.nwillc.simplecache.spi.SCachingProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListener;
+import javax.cache.spi.CachingProvider;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+import static org.junit.Assert.fail;
+
+@SuppressWarnings("unchecked")
+public class SCacheEvictionTest {
+	private static final long MAXIMUM_SIZE = 100L;
+	private CacheManager cacheManager;
+	private SCacheConfiguration<Long, String> configuration;
+
+	@Before
+	public void setUp() throws Exception {
+		CachingProvider cachingProvider = Caching.getCachingProvider(SCachingProvider.class.getCanonicalName());
+		cacheManager = cachingProvider.getCacheManager();
+		configuration = new SCacheConfiguration<>();
+		configuration.setMaximumSize(MAXIMUM_SIZE);
+		configuration.setStatisticsEnabled(true);
+	}
+
+	@Test
+	public void shouldStayBounded() throws Exception {
+		Cache<Long, String> cache = cacheManager.createCache(this.getClass().getSimpleName(), configuration);
+		for (long key = 0; key < 10 * MAXIMUM_SIZE; key++) {
+			cache.put(key, String.valueOf(key));
+		}
+		assertThat(cache).hasSize((int) MAXIMUM_SIZE);
+		assertThat(cache.unwrap(SCache.class).getStatistics().getCacheEvictions()).isEqualTo(9 * MAXIMUM_SIZE);
+	}
+
+	@Test
+	public void shouldKeepHotKeysThroughScan() throws Exception {
+		Cache<Long, String> cache = cacheManager.createCache(this.getClass().getSimpleName(), configuration);
+		for (long key = 0; key < MAXIMUM_SIZE / 2; key++) {
+			cache.put(key, String.valueOf(key));
+		}
+		for (int i = 0; i < 5; i++) {
+			for (long key = 0; key < MAXIMUM_SIZE / 2; key++) {
+				cache.get(key);
+			}
+		}
+		for (long key = 1000; key < 1000 + 10 * MAXIMUM_SIZE; key++) {
+			cache.put(key, String.valueOf(key));
+		}
+		for (long key = 0; key < MAXIMUM_SIZE / 2; key++) {
+			assertThat(cache.containsKey(key)).isTrue();
+		}
+	}
+
+	@Test
+	public void shouldNotifyEviction() throws Exception {
+		final Semaphore semaphore = new Semaphore(0);
+		Factory<CacheEntryListener<Long, String>> listenerFactory =
+				() -> (CacheEntryExpiredListener<Long, String>) cacheEntryEvents -> semaphore.release();
+		configuration.addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(listenerFactory, null, false, true));
+		configuration.setMaximumSize(1);
+		Cache<Long, String> cache = cacheManager.createCache(this.getClass().getSimpleName(), configuration);
+		cache.put(0L, "0");
+		cache.put(1L, "1");
+		assertThat(cache).hasSize(1);
+		if (!semaphore.tryAcquire(1, 5, TimeUnit.SECONDS)) {
+			fail("never notified");
+		}
+	}
+
+	@Test
+	public void shouldRemoveFromPolicy() throws Exception {
+		configuration.setMaximumSize(2);
+		Cache<Long, String> cache = cacheManager.createCache(this.getClass().getSimpleName(), configuration);
+		cache.put(0L, "0");
+		cache.put(1L, "1");
+		cache.remove(0L);
+		cache.put(2L, "2");
+		assertThat(cache.containsKey(1L)).isTrue();
+		assertThat(cache.containsKey(2L)).isTrue();
+		assertThat(cache.unwrap(SCache.class).getStatistics().getCacheEvictions()).isEqualTo(0L);
+	}
+
+	@Test
+	public void shouldUseConfiguredPolicy() throws Exception {
+		configuration.setMaximumSize(2);
+		configuration.setEvictionPolicyFactory(SLruEvictionPolicy::new);
+		Cache<Long, String> cache = cacheManager.createCache(this.getClass().getSimpleName(), configuration);
+		cache.put(0L, "0");
+		cache.put(1L, "1");
+		cache.get(0L);
+		cache.put(2L, "2");
+		assertThat(cache.containsKey(0L)).isTrue();
+		assertThat(cache.containsKey(1L)).isFalse();
+	}
+
+	@Test
+	public void shouldUseFifoPolicy() throws Exception {
+		configuration.setMaximumSize(2);
+		configuration.setEvictionPolicyFactory(SFifoEvictionPolicy::new);
+		Cache<Long, String> cache = cacheManager.createCache(this.getClass().getSimpleName(), configuration);
+		cache.put(0L, "0");
+		cache.put(1L, "1");
+		cache.get(0L);
+		cache.put(2L, "2");
+		assertThat(cache.containsKey(0L)).isFalse();
+		assertThat(cache.containsKey(1L)).isTrue();
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import com.github.nwillc.simplecache.spi.SCachingProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListener;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+import static org.junit.Assert.fail;
+
+@SuppressWarnings("unchecked")
+public class SCacheExpirySweepTest {
+	private CacheManager cacheManager;
+
+	@Before
+	public void setUp() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(SCacheManager.EXPIRY_TICK_MILLIS, "10");
+		cacheManager = Caching.getCachingProvider(SCachingProvider.class.getCanonicalName())
+				.getCacheManager(null, null, properties);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		cacheManager.close();
+	}
+
+	@Test
+	public void shouldSweepUnreadEntries() throws Exception {
+		final Semaphore semaphore = new Semaphore(0);
+		Factory<CacheEntryListener<Long, String>> listenerFactory =
+				() -> (CacheEntryExpiredListener<Long, String>) cacheEntryEvents -> semaphore.release();
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setStatisticsEnabled(true);
+		configuration.setExpiryPolicyFactory(() -> new CreatedExpiryPolicy(new Duration(TimeUnit.MILLISECONDS, 50)));
+		configuration.addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(listenerFactory, null, false, true));
+		Cache<Long, String> cache = cacheManager.createCache(this.getClass().getSimpleName(), configuration);
+		cache.put(0L, "foo");
+		assertThat(cache.containsKey(0L)).isTrue();
+		if (!semaphore.tryAcquire(1, 5, TimeUnit.SECONDS)) {
+			fail("never swept");
+		}
+		assertThat(cache.containsKey(0L)).isFalse();
+		assertThat(cache.unwrap(SCache.class).getStatistics().getCacheEvictions()).isEqualTo(1L);
+	}
+
+	@Test
+	public void shouldNotSweepEternal() throws Exception {
+		Cache<Long, String> cache = cacheManager.createCache(this.getClass().getSimpleName() + "-eternal", new MutableConfiguration<>());
+		cache.put(0L, "foo");
+		Thread.sleep(100);
+		assertThat(cache.containsKey(0L)).isTrue();
+	}
+}
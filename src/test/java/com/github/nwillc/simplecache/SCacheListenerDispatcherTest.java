@@ -8,17 +8,530 @@
 
 package com.github.nwillc.simplecache;
 
+import com.github.nwillc.simplecache.configuration.SEventOverflow;
+import com.github.nwillc.simplecache.event.SCacheEntryEvent;
+import com.github.nwillc.simplecache.managment.SCacheStatisticsMXBean;
+import com.github.nwillc.simplecache.spi.SCachingProvider;
+import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import javax.cache.Cache;
+import javax.cache.Caching;
+import javax.cache.configuration.CompleteConfiguration;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
 import javax.cache.event.CacheEntryListener;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+import javax.cache.event.EventType;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+@SuppressWarnings("unchecked")
 public class SCacheListenerDispatcherTest {
+	private final List<CacheEntryEvent> received = new ArrayList<>();
+	private Cache<Long, String> cache;
+
+	@Before
+	public void setUp() throws Exception {
+		cache = mock(Cache.class);
+		when(cache.getConfiguration(CompleteConfiguration.class)).thenReturn(new MutableConfiguration<>());
+	}
+
+	@Test
+	public void shouldDispatchInlineWithoutScheduler() throws Exception {
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.empty(), 0L);
+		register(dispatcher);
+		dispatcher.event(EventType.CREATED, 0L, "0", null);
+		assertThat(received).hasSize(1);
+	}
+
+	@Test
+	public void shouldScheduleOnlyWhenPending() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 20L);
+		register(dispatcher);
+		dispatcher.event(EventType.UPDATED, 0L, "0", null);
+		verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		dispatcher.event(EventType.CREATED, 0L, "0", null);
+		dispatcher.event(EventType.CREATED, 1L, "1", null);
+		ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler, times(1)).schedule(task.capture(), anyLong(), any(TimeUnit.class));
+		assertThat(received).isEmpty();
+		task.getValue().run();
+		assertThat(received).hasSize(2);
+		dispatcher.event(EventType.CREATED, 2L, "2", null);
+		verify(scheduler, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+	}
+
+	@Test
+	public void shouldDispatchOnClose() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 20L);
+		register(dispatcher);
+		dispatcher.event(EventType.CREATED, 0L, "0", null);
+		dispatcher.close();
+		assertThat(received).hasSize(1);
+	}
+
+	@Test
+	public void shouldCallSynchronousListenersInline() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 20L);
+		MutableCacheEntryListenerConfiguration<Long, String> configuration = new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) events -> events.forEach(received::add),
+				null, false, true);
+		dispatcher.registerCacheEntryListener(configuration);
+		dispatcher.event(EventType.CREATED, 0L, "0", null);
+		assertThat(received).hasSize(1);
+		assertThat(received.get(0).getKey()).isEqualTo(0L);
+		dispatcher.events(EventType.CREATED, Collections.singletonMap(1L, "1"));
+		assertThat(received).hasSize(2);
+		verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		dispatcher.deregisterCacheEntryListener(configuration);
+		dispatcher.event(EventType.CREATED, 2L, "2", null);
+		assertThat(received).hasSize(2);
+	}
+
+	@Test
+	public void shouldMixSynchronousAndAsynchronousListeners() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 20L);
+		List<CacheEntryEvent> inline = new ArrayList<>();
+		dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) events -> events.forEach(inline::add),
+				null, false, true));
+		register(dispatcher);
+		dispatcher.event(EventType.CREATED, 0L, "0", null);
+		assertThat(inline).hasSize(1);
+		assertThat(received).isEmpty();
+		dispatcher.close();
+		assertThat(received).hasSize(1);
+		assertThat(inline).hasSize(1);
+	}
+
+	@Test
+	public void shouldNotQueueEventsRejectedByFilter() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 20L);
+		dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) events -> events.forEach(received::add),
+				() -> event -> false, false, false));
+		dispatcher.event(EventType.CREATED, 0L, "0", null);
+		dispatcher.events(EventType.CREATED, Collections.singletonMap(1L, "1"));
+		verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		dispatcher.close();
+		assertThat(received).isEmpty();
+	}
+
+	@Test
+	public void shouldDeliverOnlyEventsAcceptedByFilter() throws Exception {
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.empty(), 0L);
+		dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) events -> events.forEach(received::add),
+				() -> event -> event.getKey() % 2 == 0, false, false));
+		Map<Long, String> entries = new HashMap<>();
+		for (long key = 0; key < 4; key++) {
+			entries.put(key, Long.toString(key));
+		}
+		dispatcher.events(EventType.CREATED, entries);
+		dispatcher.event(EventType.CREATED, 5L, "5", null);
+		assertThat(received).extracting(CacheEntryEvent::getKey).containsExactlyInAnyOrder(0L, 2L);
+	}
+
+	@Test
+	public void shouldDropOldValueWhenNotRequired() throws Exception {
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.empty(), 0L);
+		register(dispatcher);
+		assertThat(dispatcher.isOldValueRequired()).isFalse();
+		dispatcher.event(EventType.CREATED, 0L, "1", "0");
+		assertThat(received).hasSize(1);
+		assertThat(received.get(0).isOldValueAvailable()).isFalse();
+	}
+
+	@Test
+	public void shouldTrackOldValueRequired() throws Exception {
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.empty(), 0L);
+		MutableCacheEntryListenerConfiguration<Long, String> configuration = new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) events -> events.forEach(received::add),
+				null, true, false);
+		dispatcher.registerCacheEntryListener(configuration);
+		assertThat(dispatcher.isOldValueRequired()).isTrue();
+		dispatcher.event(EventType.CREATED, 0L, "1", "0");
+		assertThat(received.get(0).getOldValue()).isEqualTo("0");
+		dispatcher.deregisterCacheEntryListener(configuration);
+		assertThat(dispatcher.isOldValueRequired()).isFalse();
+	}
+
+	@Test
+	public void shouldDropNewEventsWhenFull() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		SCacheStatisticsMXBean statistics = new SCacheStatisticsMXBean();
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 20L,
+				2, SEventOverflow.DROP, 1000L, Optional.of(statistics), false, Runnable::run, 1);
+		register(dispatcher);
+		for (long key = 0; key < 3; key++) {
+			dispatcher.event(EventType.CREATED, key, Long.toString(key), null);
+		}
+		assertThat(statistics.getEventQueueDepth()).isEqualTo(2L);
+		assertThat(statistics.getEventsDropped()).isEqualTo(1L);
+		dispatcher.close();
+		assertThat(statistics.getEventQueueDepth()).isEqualTo(0L);
+		assertThat(received).extracting(CacheEntryEvent::getKey).containsExactly(0L, 1L);
+	}
+
+	@Test
+	public void shouldDropOldestEventsWhenFull() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		SCacheStatisticsMXBean statistics = new SCacheStatisticsMXBean();
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 20L,
+				2, SEventOverflow.DROP_OLDEST, 1000L, Optional.of(statistics), false, Runnable::run, 1);
+		register(dispatcher);
+		for (long key = 0; key < 3; key++) {
+			dispatcher.event(EventType.CREATED, key, Long.toString(key), null);
+		}
+		assertThat(statistics.getEventsDropped()).isEqualTo(1L);
+		dispatcher.close();
+		assertThat(received).extracting(CacheEntryEvent::getKey).containsExactly(1L, 2L);
+	}
+
+	@Test
+	public void shouldBlockUntilDispatchedWhenFull() throws Exception {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		try {
+			SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 5L,
+					1, SEventOverflow.BLOCK, 1000L, Optional.empty(), false, Runnable::run, 1);
+			List<CacheEntryEvent> events = new CopyOnWriteArrayList<>();
+			dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+					() -> (CacheEntryCreatedListener<Long, String>) e -> e.forEach(events::add),
+					null, false, false));
+			for (long key = 0; key < 5; key++) {
+				dispatcher.event(EventType.CREATED, key, Long.toString(key), null);
+				assertThat(dispatcher.depth()).isLessThanOrEqualTo(1L);
+			}
+			dispatcher.close();
+			assertThat(events).extracting(CacheEntryEvent::getKey).containsExactly(0L, 1L, 2L, 3L, 4L);
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldDropBlockedEventAfterTimeout() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		ExecutorService executor = Executors.newCachedThreadPool();
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		try {
+			SCacheStatisticsMXBean statistics = new SCacheStatisticsMXBean();
+			SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 5L,
+					1, SEventOverflow.BLOCK, 50L, Optional.of(statistics), false, executor, 1);
+			List<CacheEntryEvent> events = new CopyOnWriteArrayList<>();
+			dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+					() -> (CacheEntryCreatedListener<Long, String>) e -> {
+						e.forEach(events::add);
+						started.countDown();
+						try {
+							release.await();
+						} catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+						}
+					}, null, false, false));
+			dispatcher.event(EventType.CREATED, 0L, "0", null);
+			dispatcher.event(EventType.CREATED, 1L, "1", null);
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			long start = System.nanoTime();
+			dispatcher.event(EventType.CREATED, 2L, "2", null);
+			dispatcher.event(EventType.CREATED, 3L, "3", null);
+			assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5L);
+			long dropped = statistics.getEventsDropped();
+			assertThat(dropped).isGreaterThanOrEqualTo(1L);
+			release.countDown();
+			dispatcher.close();
+			for (int i = 0; i < 100 && events.size() + dropped < 4; i++) {
+				Thread.sleep(50);
+			}
+			assertThat(events.size() + dropped).isEqualTo(4L);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldNotBlockSchedulerThreads() throws Exception {
+		SCacheManager manager = new SCacheManager((SCachingProvider) Caching.getCachingProvider(), null);
+		ExecutorService executor = Executors.newCachedThreadPool();
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			SCacheStatisticsMXBean statistics = new SCacheStatisticsMXBean();
+			SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache,
+					Optional.of(manager.getScheduler()), 5L, 1, SEventOverflow.BLOCK, 60_000L, Optional.of(statistics),
+					false, executor, 1);
+			dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+					() -> (CacheEntryCreatedListener<Long, String>) e -> {
+						try {
+							release.await();
+						} catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+						}
+					}, null, false, false));
+			Future<?> raised = manager.getScheduler().submit(() -> {
+				for (long key = 0; key < 4; key++) {
+					dispatcher.event(EventType.CREATED, key, Long.toString(key), null);
+				}
+			});
+			raised.get(5, TimeUnit.SECONDS);
+			assertThat(statistics.getEventsDropped()).isGreaterThanOrEqualTo(2L);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+			manager.close();
+		}
+	}
+
+	@Test
+	public void shouldDropEventRaisedIntoListenersOwnFullQueue() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		SCacheStatisticsMXBean statistics = new SCacheStatisticsMXBean();
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 5L,
+				1, SEventOverflow.BLOCK, 1000L, Optional.of(statistics), false, Runnable::run, 1);
+		List<CacheEntryEvent> events = new ArrayList<>();
+		dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) e -> e.forEach(event -> {
+					events.add(event);
+					if (event.getKey() == 0L) {
+						dispatcher.event(EventType.CREATED, 10L, "10", null);
+						dispatcher.event(EventType.CREATED, 11L, "11", null);
+					}
+				}), null, false, false));
+		dispatcher.event(EventType.CREATED, 0L, "0", null);
+		dispatcher.event(EventType.CREATED, 1L, "1", null);
+		dispatcher.close();
+		assertThat(statistics.getEventsDropped()).isEqualTo(1L);
+		assertThat(events).extracting(CacheEntryEvent::getKey).containsExactly(0L, 10L, 1L);
+	}
+
+	@Test
+	public void shouldCoalesceEventsPerKey() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 20L,
+				16, SEventOverflow.BLOCK, 1000L, Optional.empty(), true, Runnable::run, 1);
+		register(dispatcher);
+		List<CacheEntryEvent> removed = new ArrayList<>();
+		dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryRemovedListener<Long, String>) events -> events.forEach(removed::add),
+				null, false, false));
+		dispatcher.event(EventType.CREATED, 1L, "a", null);
+		for (int i = 0; i < 1000; i++) {
+			dispatcher.event(EventType.UPDATED, 1L, Integer.toString(i), null);
+		}
+		dispatcher.event(EventType.CREATED, 2L, "b", null);
+		dispatcher.event(EventType.REMOVED, 2L, null, null);
+		assertThat(dispatcher.depth()).isEqualTo(1L);
+		dispatcher.close();
+		assertThat(received).hasSize(1);
+		assertThat(received.get(0).getKey()).isEqualTo(1L);
+		assertThat(received.get(0).getValue()).isEqualTo("999");
+		assertThat(removed).isEmpty();
+	}
+
+	@Test
+	public void testCoalesce() throws Exception {
+		CacheEntryEvent<Long, String> created = new SCacheEntryEvent<>(cache, EventType.CREATED, 1L, "a");
+		CacheEntryEvent<Long, String> updated = new SCacheEntryEvent<>(cache, EventType.UPDATED, 1L, "b", "a");
+		CacheEntryEvent<Long, String> later = new SCacheEntryEvent<>(cache, EventType.UPDATED, 1L, "c", "b");
+		CacheEntryEvent<Long, String> removed = new SCacheEntryEvent<>(cache, EventType.REMOVED, 1L, null);
+		CacheEntryEvent<Long, String> expired = new SCacheEntryEvent<>(cache, EventType.EXPIRED, 1L, null);
+
+		assertThat(SCacheListenerDispatcher.coalesce(null, created)).isSameAs(created);
+		assertThat(SCacheListenerDispatcher.coalesce(created, removed)).isNull();
+		assertThat(SCacheListenerDispatcher.coalesce(created, expired)).isNull();
+
+		CacheEntryEvent<Long, String> event = SCacheListenerDispatcher.coalesce(created, updated);
+		assertThat(event.getEventType()).isEqualTo(EventType.CREATED);
+		assertThat(event.getValue()).isEqualTo("b");
+
+		event = SCacheListenerDispatcher.coalesce(updated, later);
+		assertThat(event.getEventType()).isEqualTo(EventType.UPDATED);
+		assertThat(event.getValue()).isEqualTo("c");
+		assertThat(event.getOldValue()).isEqualTo("a");
+
+		event = SCacheListenerDispatcher.coalesce(updated, removed);
+		assertThat(event.getEventType()).isEqualTo(EventType.REMOVED);
+		assertThat(event.getOldValue()).isEqualTo("a");
+
+		event = SCacheListenerDispatcher.coalesce(removed, created);
+		assertThat(event.getEventType()).isEqualTo(EventType.UPDATED);
+		assertThat(event.getValue()).isEqualTo("a");
+	}
+
+	@Test
+	public void shouldNotStallOnSlowListener() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		ExecutorService executor = Executors.newCachedThreadPool();
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch delivered = new CountDownLatch(1);
+		try {
+			SCacheStatisticsMXBean statistics = new SCacheStatisticsMXBean();
+			SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.of(scheduler), 20L,
+					16, SEventOverflow.BLOCK, 1000L, Optional.of(statistics), false, executor, 1);
+			dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+					() -> (CacheEntryCreatedListener<Long, String>) events -> {
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}, null, false, false));
+			dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+					() -> (CacheEntryCreatedListener<Long, String>) events -> delivered.countDown(),
+					null, false, false));
+			dispatcher.event(EventType.CREATED, 0L, "0", null);
+			dispatcher.close();
+			assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+			release.countDown();
+			assertThat(statistics.getAverageListenerDispatchTimes()).hasSize(2);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldReportDispatchTimes() throws Exception {
+		SCacheStatisticsMXBean statistics = new SCacheStatisticsMXBean();
+		SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.empty(), 0L,
+				16, SEventOverflow.BLOCK, 1000L, Optional.of(statistics), false, Runnable::run, 1);
+		register(dispatcher);
+		assertThat(statistics.getAverageListenerDispatchTimes()).containsValue(0.0f);
+		dispatcher.event(EventType.CREATED, 0L, "0", null);
+		assertThat(received).hasSize(1);
+		assertThat(statistics.getAverageListenerDispatchTimes()).hasSize(1);
+		assertThat(statistics.getAverageListenerDispatchTimes().keySet().iterator().next()).contains(getClass().getName());
+	}
+
+	@Test
+	public void shouldKeepKeyOrderAcrossPartitions() throws Exception {
+		final int KEYS = 16;
+		final int UPDATES = 100;
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.empty(), 0L,
+					64, SEventOverflow.BLOCK, 1000L, Optional.empty(), false, executor, 4);
+			Map<Long, List<String>> seen = new ConcurrentHashMap<>();
+			CountDownLatch latch = new CountDownLatch(KEYS * UPDATES);
+			dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+					() -> (CacheEntryUpdatedListener<Long, String>) events -> events.forEach(e -> {
+						seen.computeIfAbsent(e.getKey(), k -> new CopyOnWriteArrayList<>()).add(e.getValue());
+						latch.countDown();
+					}), null, false, false));
+			for (int update = 0; update < UPDATES; update++) {
+				for (long key = 0; key < KEYS; key++) {
+					dispatcher.event(EventType.UPDATED, key, Integer.toString(update), null);
+				}
+			}
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(seen).hasSize(KEYS);
+			seen.values().forEach(values -> {
+				for (int update = 0; update < UPDATES; update++) {
+					assertThat(values.get(update)).isEqualTo(Integer.toString(update));
+				}
+			});
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldRegisterWhileRaising() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		AtomicBoolean running = new AtomicBoolean(true);
+		try {
+			SCacheListenerDispatcher<Long, String> dispatcher = new SCacheListenerDispatcher<>(cache, Optional.empty(), 0L,
+					64, SEventOverflow.BLOCK, 1000L, Optional.empty(), false, executor, 2);
+			Future<?> producer = executor.submit(() -> {
+				long key = 0;
+				while (running.get()) {
+					dispatcher.event(EventType.CREATED, key++, "value", null);
+				}
+			});
+			for (int i = 0; i < 200; i++) {
+				MutableCacheEntryListenerConfiguration<Long, String> configuration = new MutableCacheEntryListenerConfiguration<>(
+						() -> (CacheEntryCreatedListener<Long, String>) events -> {
+						}, null, i % 2 == 0, i % 3 == 0);
+				dispatcher.registerCacheEntryListener(configuration);
+				assertThat(dispatcher.isOldValueRequired()).isEqualTo(i % 2 == 0);
+				dispatcher.deregisterCacheEntryListener(configuration);
+			}
+			CountDownLatch latch = new CountDownLatch(1);
+			dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+					() -> (CacheEntryCreatedListener<Long, String>) events -> latch.countDown(),
+					null, false, false));
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+			running.set(false);
+			producer.get(5, TimeUnit.SECONDS);
+		} finally {
+			running.set(false);
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testRegistry() throws Exception {
+		SCacheListenerDispatcher.Registry<Long, String> registry = new SCacheListenerDispatcher.Registry<>(Collections.emptySet());
+		assertThat(registry.raises(EventType.CREATED, true)).isFalse();
+		SCacheListenerDispatcher.Listener<Long, String> listener = new SCacheListenerDispatcher.Listener<>(
+				new MutableCacheEntryListenerConfiguration<>(() -> (CacheEntryCreatedListener<Long, String>) events -> {
+				}, null, true, false));
+		listener.type = EventType.CREATED;
+		SCacheListenerDispatcher.Registry<Long, String> with = registry.with(listener);
+		assertThat(with.listeners).containsExactly(listener);
+		assertThat(with.asynchronous.get(EventType.CREATED)).containsExactly(listener);
+		assertThat(with.synchronous).isEmpty();
+		assertThat(with.oldValueRequired).isTrue();
+		assertThat(with.raises(EventType.REMOVED, false)).isFalse();
+		assertThat(with.raises(EventType.REMOVED, true)).isTrue();
+		SCacheListenerDispatcher.Registry<Long, String> without = with.without(listener);
+		assertThat(without.listeners).isEmpty();
+		assertThat(without.asynchronous).isEmpty();
+		assertThat(without.oldValueRequired).isFalse();
+		assertThat(registry.listeners).isEmpty();
+	}
+
+	private void register(SCacheListenerDispatcher<Long, String> dispatcher) {
+		dispatcher.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) events -> events.forEach(received::add),
+				null, false, false));
+	}
 
 	@Test
 	public void testTransfer() throws Exception {
@@ -30,6 +30,7 @@ import javax.cache.spi.CachingProvider;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
@@ -159,4 +160,28 @@ public class SCacheListenerTest {
 			fail("never notified");
 		}
 	}
+
+	@Test
+	public void shouldCallAsynchronousListenersOnListenerThreads() throws Exception {
+		final AtomicReference<String> threadName = new AtomicReference<>();
+		final Semaphore semaphore = new Semaphore(0);
+
+		Factory<CacheEntryListener<String, Long>> listenerFactory =
+				() -> (CacheEntryCreatedListener<String, Long>) cacheEntryEvents -> {
+					threadName.set(Thread.currentThread().getName());
+					semaphore.release();
+				};
+
+		MutableConfiguration<String, Long> configuration = new MutableConfiguration<>();
+		configuration.addCacheEntryListenerConfiguration(
+				new MutableCacheEntryListenerConfiguration<>(listenerFactory, null, false, false));
+
+		Cache<String, Long> cache = cacheManager.createCache("ASYNC", configuration);
+		cache.put("foo", 0L);
+		cache.close();
+		if (!semaphore.tryAcquire(1, 5, TimeUnit.SECONDS)) {
+			fail("never notified");
+		}
+		assertThat(threadName.get()).isEqualTo("SCacheManager-listener");
+	}
 }
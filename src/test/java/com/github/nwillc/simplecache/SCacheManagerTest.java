@@ -18,6 +18,10 @@ import javax.cache.Caching;
 import javax.cache.configuration.MutableConfiguration;
 import javax.cache.spi.CachingProvider;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
@@ -130,6 +134,68 @@ public class SCacheManagerTest {
 		cacheManager.close();
 	}
 
+	@Test
+	public void shouldShareCachedClock() throws Exception {
+		SCacheManager sCacheManager = cacheManager.unwrap(SCacheManager.class);
+		assertThat(sCacheManager.getClock()).isInstanceOf(SCachedClock.class);
+		assertThat(sCacheManager.getClock()).isSameAs(sCacheManager.getClock());
+	}
+
+	@Test
+	public void shouldTickClockWhileSchedulerIsBusy() throws Exception {
+		SCacheManager sCacheManager = new SCacheManager((SCachingProvider) Caching.getCachingProvider(), null);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			LongSupplier clock = sCacheManager.getClock();
+			for (int i = 0; i < 4; i++) {
+				sCacheManager.getScheduler().execute(() -> {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+			long before = clock.getAsLong();
+			Thread.sleep(50);
+			assertThat(clock.getAsLong()).isGreaterThan(before);
+		} finally {
+			release.countDown();
+			sCacheManager.close();
+		}
+	}
+
+	@Test
+	public void shouldReadNanoTimeWithoutResolution() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(SCacheManager.CLOCK_RESOLUTION_MILLIS, "0");
+		SCacheManager sCacheManager = new SCacheManager((SCachingProvider) Caching.getCachingProvider(), properties);
+		assertThat(sCacheManager.getClock()).isNotInstanceOf(SCachedClock.class);
+		long before = System.nanoTime();
+		assertThat(sCacheManager.getClock().getAsLong()).isGreaterThanOrEqualTo(before);
+	}
+
+	@Test
+	public void shouldReadEventDispatchMillis() throws Exception {
+		Properties properties = new Properties();
+		SCacheManager sCacheManager = new SCacheManager((SCachingProvider) Caching.getCachingProvider(), properties);
+		assertThat(sCacheManager.getEventDispatchMillis()).isEqualTo(500L);
+		properties.setProperty(SCacheManager.EVENT_DISPATCH_MILLIS, "5");
+		assertThat(sCacheManager.getEventDispatchMillis()).isEqualTo(5L);
+	}
+
+	@Test
+	public void shouldCallListenersOnDaemonThreads() throws Exception {
+		SCacheManager sCacheManager = new SCacheManager((SCachingProvider) Caching.getCachingProvider(), null);
+		ExecutorService listenerExecutor = sCacheManager.getListenerExecutor();
+		assertThat(listenerExecutor).isSameAs(sCacheManager.getListenerExecutor());
+		Thread thread = listenerExecutor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+		assertThat(thread.isDaemon()).isTrue();
+		assertThat(thread.getName()).isEqualTo("SCacheManager-listener");
+		sCacheManager.close();
+		assertThat(listenerExecutor.isShutdown()).isTrue();
+	}
+
 	@Test
 	public void testUnwrap() throws Exception {
 		CacheManager cacheManager1 = cacheManager.unwrap(SCacheManager.class);
@@ -8,7 +8,9 @@
 
 package com.github.nwillc.simplecache;
 
+import com.github.nwillc.simplecache.configuration.SCacheConfiguration;
 import com.github.nwillc.simplecache.integration.SCacheLoader;
+import com.github.nwillc.simplecache.managment.SCacheStatisticsMXBean;
 import com.github.nwillc.simplecache.spi.SCachingProvider;
 import org.junit.Before;
 import org.junit.Test;
@@ -18,19 +20,33 @@ import javax.cache.CacheManager;
 import javax.cache.Caching;
 import javax.cache.configuration.CompleteConfiguration;
 import javax.cache.configuration.Factory;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
 import javax.cache.configuration.MutableConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.expiry.Duration;
 import javax.cache.integration.CacheLoader;
 import javax.cache.integration.CompletionListener;
 import javax.cache.integration.CompletionListenerFuture;
 import javax.cache.spi.CachingProvider;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
@@ -163,6 +179,10 @@ public class SCacheReadThroughTest {
 		keys.add(0L);
 		assertThat(cache.containsKey(0L)).isFalse();
 		cache.loadAll(keys, false, null);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!cache.containsKey(0L) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
 		assertThat(cache.containsKey(0L)).isTrue();
 	}
 
@@ -172,7 +192,9 @@ public class SCacheReadThroughTest {
 		Set<Long> keys = new HashSet<>();
 		keys.add(0L);
 		assertThat(cache.containsKey(0L)).isFalse();
-		cache.loadAll(keys, false, null);
+		CompletionListenerFuture done = new CompletionListenerFuture();
+		cache.loadAll(keys, false, done);
+		done.get(5, TimeUnit.SECONDS);
 		assertThat(cache).hasSize(1);
 		assertThat(readThroughs.get()).isEqualTo(1);
 		assertThat(cache.get(0L)).isEqualTo("0");
@@ -216,4 +238,313 @@ public class SCacheReadThroughTest {
 		cache.loadAll(keys, true, done);
 		assertThatThrownBy(() -> done.get(2, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
 	}
+
+	@Test
+	public void shouldLoadAllInBatchesOnExecutor() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		AtomicInteger batches = new AtomicInteger();
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setLoadBatchSize(2);
+		configuration.setExecutorFactory(() -> (Executor) tasks::add);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> k < 4 ? Long.toString(k) : null) {
+			@Override
+			public Map<Long, String> loadAll(Iterable<? extends Long> keys) {
+				batches.incrementAndGet();
+				return super.loadAll(keys);
+			}
+		});
+		cache = cacheManager.createCache(NAME + "batches", configuration);
+		Set<Long> keys = new HashSet<>();
+		for (long i = 0; i < 5; i++) {
+			keys.add(i);
+		}
+		CompletionListenerFuture done = new CompletionListenerFuture();
+		cache.loadAll(keys, false, done);
+		assertThat(done.isDone()).isFalse();
+		assertThat(tasks).hasSize(3);
+		tasks.forEach(Runnable::run);
+		done.get(5, TimeUnit.SECONDS);
+		assertThat(batches.get()).isEqualTo(3);
+		assertThat(cache).hasSize(4);
+		assertThat(cache.get(3L)).isEqualTo("3");
+	}
+
+	@Test
+	public void shouldLoadAllWithoutReadThrough() throws Exception {
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setCacheLoaderFactory(factory);
+		cache = cacheManager.createCache(NAME + "noReadThrough", configuration);
+		backingStore.put(0L, "0");
+		CompletionListenerFuture done = new CompletionListenerFuture();
+		cache.loadAll(Collections.singleton(0L), false, done);
+		done.get(5, TimeUnit.SECONDS);
+		assertThat(cache.get(0L)).isEqualTo("0");
+	}
+
+	@Test
+	public void shouldGetAllWithOneLoad() throws Exception {
+		List<List<Long>> loads = new ArrayList<>();
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setStatisticsEnabled(true);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(backingStore::get) {
+			@Override
+			public Map<Long, String> loadAll(Iterable<? extends Long> keys) {
+				List<Long> batch = new ArrayList<>();
+				keys.forEach(batch::add);
+				loads.add(batch);
+				return super.loadAll(keys);
+			}
+		});
+		cache = cacheManager.createCache(NAME + "getAll", configuration);
+		backingStore.put(1L, "1");
+		backingStore.put(2L, "2");
+		cache.put(0L, "0");
+		Set<Long> keys = new HashSet<>();
+		for (long i = 0; i < 4; i++) {
+			keys.add(i);
+		}
+		Map<Long, String> values = cache.getAll(keys);
+		assertThat(values).hasSize(3).containsEntry(0L, "0").containsEntry(1L, "1").containsEntry(2L, "2");
+		assertThat(loads).hasSize(1);
+		assertThat(loads.get(0)).containsExactlyInAnyOrder(1L, 2L, 3L);
+		assertThat(cache.get(2L)).isEqualTo("2");
+		assertThat(loads).hasSize(1);
+		SCacheStatisticsMXBean statistics = cache.unwrap(SCache.class).getStatistics();
+		assertThat(statistics.getCacheGets()).isEqualTo(6L);
+		assertThat(statistics.getCacheHits()).isEqualTo(2L);
+		assertThat(statistics.getCacheMisses()).isEqualTo(3L);
+		assertThat(statistics.getReadThrough()).isEqualTo(1L);
+	}
+
+	@Test
+	public void shouldGetAllWithoutReadThrough() throws Exception {
+		cache.getConfiguration(MutableConfiguration.class).setReadThrough(false);
+		backingStore.put(0L, "0");
+		assertThat(cache.getAll(Collections.singleton(0L))).isEmpty();
+		assertThat(readThroughs.get()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldLoadOnceForConcurrentMisses() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setStatisticsEnabled(true);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> {
+			readThroughs.incrementAndGet();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "0";
+		}));
+		cache = cacheManager.createCache(NAME + "singleFlight", configuration);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> cache.get(0L)));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<String> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("0");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(readThroughs.get()).isEqualTo(1);
+		SCacheStatisticsMXBean statistics = cache.unwrap(SCache.class).getStatistics();
+		assertThat(statistics.getCacheHits() + statistics.getCacheMisses()).isEqualTo((long) threads);
+		assertThat(statistics.getReadThrough()).isEqualTo(1L);
+	}
+
+	@Test
+	public void shouldShareLoadFailure() throws Exception {
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> {
+			throw new IllegalStateException("pop!");
+		}));
+		cache = cacheManager.createCache(NAME + "singleFlightFailure", configuration);
+		assertThatThrownBy(() -> cache.get(0L)).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> cache.get(0L)).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void shouldRefreshAfterWrite() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		AtomicInteger version = new AtomicInteger();
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setRefreshAfterWrite(Duration.ONE_MINUTE);
+		configuration.setExecutorFactory(() -> (Executor) tasks::add);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> "v" + version.incrementAndGet()));
+		cache = cacheManager.createCache(NAME + "refresh", configuration);
+		AtomicLong time = new AtomicLong(0L);
+		cache.unwrap(SCache.class).setClock(time::get);
+		assertThat(cache.get(0L)).isEqualTo("v1");
+		assertThat(cache.get(0L)).isEqualTo("v1");
+		assertThat(tasks).isEmpty();
+		time.set(TimeUnit.MINUTES.toNanos(2));
+		assertThat(cache.get(0L)).isEqualTo("v1");
+		assertThat(cache.get(0L)).isEqualTo("v1");
+		assertThat(tasks).hasSize(1);
+		tasks.remove(0).run();
+		assertThat(cache.get(0L)).isEqualTo("v2");
+		assertThat(tasks).isEmpty();
+	}
+
+	@Test
+	public void shouldKeepValueWhenRefreshFails() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setRefreshAfterWrite(Duration.ONE_MINUTE);
+		configuration.setExecutorFactory(() -> (Executor) tasks::add);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> {
+			throw new IllegalStateException("pop!");
+		}));
+		cache = cacheManager.createCache(NAME + "refreshFailure", configuration);
+		AtomicLong time = new AtomicLong(0L);
+		cache.unwrap(SCache.class).setClock(time::get);
+		cache.put(0L, "0");
+		time.set(TimeUnit.MINUTES.toNanos(2));
+		assertThat(cache.get(0L)).isEqualTo("0");
+		tasks.remove(0).run();
+		assertThat(cache.get(0L)).isEqualTo("0");
+		assertThat(tasks).hasSize(1);
+	}
+
+	@Test
+	public void shouldNotOverwriteWriteMadeDuringRefresh() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setRefreshAfterWrite(Duration.ONE_MINUTE);
+		configuration.setExecutorFactory(() -> (Executor) tasks::add);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> "stale"));
+		cache = cacheManager.createCache(NAME + "refreshRace", configuration);
+		AtomicLong time = new AtomicLong(0L);
+		cache.unwrap(SCache.class).setClock(time::get);
+		cache.put(0L, "0");
+		time.set(TimeUnit.MINUTES.toNanos(2));
+		assertThat(cache.get(0L)).isEqualTo("0");
+		cache.put(0L, "1");
+		tasks.remove(0).run();
+		assertThat(cache.get(0L)).isEqualTo("1");
+	}
+
+	@Test
+	public void shouldNotOverwriteSameValueWrittenDuringRefresh() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setRefreshAfterWrite(Duration.ONE_MINUTE);
+		configuration.setExecutorFactory(() -> (Executor) tasks::add);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> "stale"));
+		cache = cacheManager.createCache(NAME + "refreshSameValue", configuration);
+		AtomicLong time = new AtomicLong(0L);
+		cache.unwrap(SCache.class).setClock(time::get);
+		String value = "0";
+		cache.put(0L, value);
+		time.set(TimeUnit.MINUTES.toNanos(2));
+		assertThat(cache.get(0L)).isSameAs(value);
+		cache.put(0L, value);
+		tasks.remove(0).run();
+		assertThat(cache.get(0L)).isSameAs(value);
+	}
+
+	@Test
+	public void shouldNotJoinRefreshOnMiss() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setRefreshAfterWrite(Duration.ONE_MINUTE);
+		configuration.setExecutorFactory(() -> (Executor) tasks::add);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> "loaded"));
+		cache = cacheManager.createCache(NAME + "refreshMiss", configuration);
+		AtomicLong time = new AtomicLong(0L);
+		cache.unwrap(SCache.class).setClock(time::get);
+		cache.put(0L, "0");
+		time.set(TimeUnit.MINUTES.toNanos(2));
+		assertThat(cache.get(0L)).isEqualTo("0");
+		assertThat(tasks).hasSize(1);
+		cache.remove(0L);
+		assertThat(cache.get(0L)).isEqualTo("loaded");
+		assertThat(cache.containsKey(0L)).isTrue();
+		tasks.remove(0).run();
+		assertThat(cache.get(0L)).isEqualTo("loaded");
+	}
+
+	@Test
+	public void shouldShareLoadBetweenGetAndGetAll() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> {
+			readThroughs.incrementAndGet();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return k.toString();
+		}));
+		cache = cacheManager.createCache(NAME + "getAllSingleFlight", configuration);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> single = executor.submit(() -> cache.get(0L));
+			while (readThroughs.get() == 0) {
+				Thread.sleep(1);
+			}
+			Future<Map<Long, String>> all = executor.submit(() -> cache.getAll(new HashSet<>(Arrays.asList(0L, 1L))));
+			Thread.sleep(100);
+			release.countDown();
+			assertThat(single.get(5, TimeUnit.SECONDS)).isEqualTo("0");
+			assertThat(all.get(5, TimeUnit.SECONDS)).containsEntry(0L, "0").containsEntry(1L, "1");
+			assertThat(readThroughs.get()).isEqualTo(2);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldKeepPutMadeDuringGetAll() throws Exception {
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setCacheLoaderFactory(() -> new SCacheLoader<Long, String>(k -> {
+			cache.put(k, "put");
+			return "loaded";
+		}));
+		List<CacheEntryEvent> created = new ArrayList<>();
+		configuration.addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) events -> events.forEach(created::add),
+				null, false, true));
+		cache = cacheManager.createCache(NAME + "getAllPut", configuration);
+		assertThat(cache.getAll(Collections.singleton(0L))).containsEntry(0L, "put");
+		assertThat(cache.get(0L)).isEqualTo("put");
+		assertThat(cache.get(1L)).isEqualTo("put");
+		assertThat(created).extracting(CacheEntryEvent::getKey).containsExactly(0L, 1L);
+	}
+
+	@Test
+	public void shouldRaiseCreatedEventsForReadThrough() throws Exception {
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setReadThrough(true);
+		configuration.setCacheLoaderFactory(factory);
+		List<CacheEntryEvent> created = new ArrayList<>();
+		configuration.addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) events -> events.forEach(created::add),
+				null, false, true));
+		cache = cacheManager.createCache(NAME + "readThroughEvents", configuration);
+		backingStore.put(0L, "0");
+		backingStore.put(1L, "1");
+		backingStore.put(2L, "2");
+		assertThat(cache.get(0L)).isEqualTo("0");
+		assertThat(cache.getAll(new HashSet<>(Arrays.asList(0L, 1L, 2L, 3L)))).hasSize(3);
+		assertThat(cache.get(1L)).isEqualTo("1");
+		assertThat(created).extracting(CacheEntryEvent::getKey).containsExactlyInAnyOrder(0L, 1L, 2L);
+		assertThat(created).extracting(CacheEntryEvent::getValue).containsExactlyInAnyOrder("0", "1", "2");
+	}
 }
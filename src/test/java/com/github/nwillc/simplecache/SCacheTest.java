@@ -8,6 +8,9 @@
 
 package com.github.nwillc.simplecache;
 
+import com.github.nwillc.simplecache.configuration.SCacheConfiguration;
+import com.github.nwillc.simplecache.serialization.SBinarySerializer;
+import com.github.nwillc.simplecache.serialization.SJavaSerializer;
 import com.github.nwillc.simplecache.spi.SCachingProvider;
 import org.assertj.core.data.MapEntry;
 import org.junit.Before;
@@ -26,15 +29,22 @@ import javax.cache.event.CacheEntryListener;
 import javax.cache.event.CacheEntryUpdatedListener;
 import javax.cache.expiry.CreatedExpiryPolicy;
 import javax.cache.expiry.Duration;
+import javax.cache.expiry.ExpiryPolicy;
 import javax.cache.processor.EntryProcessor;
 import javax.cache.processor.EntryProcessorResult;
 import javax.cache.spi.CachingProvider;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -263,6 +273,31 @@ public class SCacheTest {
 		assertThat(cache).containsExactly(new SEntry<>(0L, "0"), new SEntry<>(1L, "1"));
 	}
 
+	@Test
+	public void shouldRejectNullKeysAndValues() throws Exception {
+		assertThatThrownBy(() -> cache.put(null, "foo")).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.put(0L, null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.getAndPut(0L, null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.putIfAbsent(0L, null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.remove(null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.remove(0L, null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.getAndRemove(null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.replace(0L, null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.replace(0L, "foo", null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.getAndReplace(0L, null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> cache.removeAll(Collections.singleton(null))).isInstanceOf(NullPointerException.class);
+		assertThat(cache.containsKey(0L)).isFalse();
+	}
+
+	@Test
+	public void shouldRejectPutAllWithNullBeforeStoringAny() throws Exception {
+		Map<Long, String> map = new LinkedHashMap<>();
+		map.put(0L, "0");
+		map.put(1L, null);
+		assertThatThrownBy(() -> cache.putAll(map)).isInstanceOf(NullPointerException.class);
+		assertThat(cache.containsKey(0L)).isFalse();
+	}
+
 	@Test
 	public void testGetAndRemove() throws Exception {
 		cache.put(0L, "foo");
@@ -317,6 +352,120 @@ public class SCacheTest {
 		assertThat(sCache.get(0L)).isNull();
 	}
 
+	@Test
+	public void shouldCopyWithConfiguredSerializer() throws Exception {
+		SCacheConfiguration<Long, StringBuilder> conf = new SCacheConfiguration<>();
+		conf.setSerializerFactory(SJavaSerializer::new);
+		Cache<Long, StringBuilder> builders = cacheManager.createCache(NAME + "-serializer", conf);
+		StringBuilder value = new StringBuilder("foo");
+		builders.put(0L, value);
+		value.append("bar");
+		assertThat(builders.get(0L).toString()).isEqualTo("foo");
+	}
+
+	@Test
+	public void shouldShareImmutableValues() throws Exception {
+		String value = new String("foo");
+		cache.put(0L, value);
+		assertThat(cache.get(0L)).isSameAs(value);
+	}
+
+	@Test
+	public void shouldShareRegisteredImmutableTypes() throws Exception {
+		SCacheConfiguration<Long, StringBuilder> conf = new SCacheConfiguration<>();
+		conf.addImmutableType(StringBuilder.class);
+		Cache<Long, StringBuilder> builders = cacheManager.createCache(NAME + "-immutable", conf);
+		StringBuilder value = new StringBuilder("foo");
+		builders.put(0L, value);
+		assertThat(builders.get(0L)).isSameAs(value);
+	}
+
+	@Test
+	public void shouldStoreSerialized() throws Exception {
+		SCacheConfiguration<Long, StringBuilder> conf = new SCacheConfiguration<>();
+		conf.setStoreSerialized(true);
+		Cache<Long, StringBuilder> builders = cacheManager.createCache(NAME + "-serialized", conf);
+		StringBuilder value = new StringBuilder("foo");
+		builders.put(0L, value);
+		value.append("bar");
+		StringBuilder stored = builders.get(0L);
+		assertThat(stored.toString()).isEqualTo("foo");
+		stored.append("baz");
+		assertThat(builders.get(0L).toString()).isEqualTo("foo");
+		assertThat(builders.getAndReplace(0L, new StringBuilder("bar")).toString()).isEqualTo("foo");
+		builders.forEach(e -> assertThat(e.getValue().toString()).isEqualTo("bar"));
+	}
+
+	@Test
+	public void shouldNotDeserializeOldValueOnPut() throws Exception {
+		AtomicInteger deserialized = new AtomicInteger();
+		SCacheConfiguration<Long, StringBuilder> conf = new SCacheConfiguration<>();
+		conf.setStoreSerialized(true);
+		conf.setSerializerFactory(() -> new SBinarySerializer() {
+			@Override
+			public Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+				deserialized.incrementAndGet();
+				return super.deserialize(bytes);
+			}
+		});
+		Cache<Long, StringBuilder> builders = cacheManager.createCache(NAME + "-put", conf);
+		builders.put(0L, new StringBuilder("foo"));
+		builders.put(0L, new StringBuilder("bar"));
+		assertThat(deserialized.get()).isEqualTo(0);
+		assertThat(builders.getAndPut(0L, new StringBuilder("baz")).toString()).isEqualTo("bar");
+		assertThat(deserialized.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldStoreSerializedByteArrays() throws Exception {
+		SCacheConfiguration<Long, byte[]> conf = new SCacheConfiguration<>();
+		conf.setStoreSerialized(true);
+		Cache<Long, byte[]> arrays = cacheManager.createCache(NAME + "-bytes", conf);
+		arrays.put(0L, new byte[]{1, 2});
+		assertThat(arrays.get(0L)).containsExactly(1, 2);
+	}
+
+	@Test
+	public void shouldReplaceSerialized() throws Exception {
+		SCacheConfiguration<Long, String> conf = new SCacheConfiguration<>();
+		conf.setStoreSerialized(true);
+		Cache<Long, String> strings = cacheManager.createCache(NAME + "-strings", conf);
+		strings.put(0L, "foo");
+		assertThat(strings.replace(0L, "foo", "bar")).isTrue();
+		assertThat(strings.get(0L)).isEqualTo("bar");
+	}
+
+	@Test
+	public void shouldExpireWithCustomPolicy() throws Exception {
+		MutableConfiguration<Long, String> conf = new MutableConfiguration<>();
+		conf.setExpiryPolicyFactory(() -> new ExpiryPolicy() {
+			@Override
+			public Duration getExpiryForCreation() {
+				return new Duration(TimeUnit.SECONDS, 5);
+			}
+
+			@Override
+			public Duration getExpiryForAccess() {
+				return null;
+			}
+
+			@Override
+			public Duration getExpiryForUpdate() {
+				return Duration.ETERNAL;
+			}
+		});
+		cache = cacheManager.createCache(NAME + "-custom", conf);
+		SCache<Long, String> sCache = cache.unwrap(SCache.class);
+		final AtomicLong time = new AtomicLong(0L);
+		sCache.setClock(time::get);
+		sCache.put(0L, "foo");
+		sCache.put(1L, "bar");
+		sCache.put(1L, "baz");
+		time.set(TimeUnit.SECONDS.toNanos(10));
+		assertThat(sCache.get(0L)).isNull();
+		assertThat(sCache.get(1L)).isEqualTo("baz");
+	}
+
 	@Test
 	public void testClose() throws Exception {
 		assertThat(cache.isClosed()).isFalse();
@@ -326,6 +475,21 @@ public class SCacheTest {
 		cache.close();
 	}
 
+	@Test
+	public void shouldShutDownExecutorsItCreated() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		ExecutorService listenerExecutor = Executors.newSingleThreadExecutor();
+		SCacheConfiguration<Long, String> conf = new SCacheConfiguration<>();
+		conf.setExecutorFactory(() -> executor);
+		conf.setListenerExecutorFactory(() -> listenerExecutor);
+		Cache<Long, String> owner = cacheManager.createCache(NAME + "-executors", conf);
+		owner.put(0L, "foo");
+		assertThat(executor.isShutdown()).isFalse();
+		owner.close();
+		assertThat(executor.isShutdown()).isTrue();
+		assertThat(listenerExecutor.isShutdown()).isTrue();
+	}
+
 	@Test
 	public void testIterator() throws Exception {
 		cache.put(0L, "foo");
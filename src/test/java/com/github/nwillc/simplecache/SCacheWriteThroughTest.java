@@ -8,6 +8,7 @@
 
 package com.github.nwillc.simplecache;
 
+import com.github.nwillc.simplecache.configuration.SCacheConfiguration;
 import com.github.nwillc.simplecache.integration.SCacheWriter;
 import com.github.nwillc.simplecache.spi.SCachingProvider;
 import org.junit.Before;
@@ -18,12 +19,23 @@ import javax.cache.CacheManager;
 import javax.cache.Caching;
 import javax.cache.configuration.CompleteConfiguration;
 import javax.cache.configuration.Factory;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
 import javax.cache.configuration.MutableConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.expiry.Duration;
 import javax.cache.integration.CacheWriter;
 import javax.cache.spi.CachingProvider;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.assertj.core.data.MapEntry.entry;
 
@@ -97,4 +109,85 @@ public class SCacheWriteThroughTest {
 		cache.remove(0L);
 		assertThat(cache.get(0L)).isNull();
 	}
+
+	@Test
+	public void shouldWriteBehind() throws Exception {
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setWriteThrough(true);
+		configuration.setWriteBehind(true);
+		configuration.setWriteBehindDelay(Duration.ONE_HOUR);
+		configuration.setCacheWriterFactory(factory);
+		cache = cacheManager.createCache(NAME + "behind", configuration);
+		cache.put(0L, "foo");
+		cache.put(0L, "bar");
+		cache.put(1L, "baz");
+		cache.remove(1L);
+		assertThat(backingStore).isEmpty();
+		cache.close();
+		assertThat(backingStore).containsOnly(entry(0L, "bar"));
+	}
+
+	@Test
+	public void shouldBatchBulkWrites() throws Exception {
+		AtomicInteger writeAlls = new AtomicInteger();
+		AtomicInteger deleteAlls = new AtomicInteger();
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setWriteThrough(true);
+		configuration.setCacheWriterFactory(() -> new SCacheWriter<Long, String>(backingStore::remove, e -> backingStore.put(e.getKey(), e.getValue())) {
+			@Override
+			public void writeAll(Collection<Cache.Entry<? extends Long, ? extends String>> entries) {
+				writeAlls.incrementAndGet();
+				super.writeAll(entries);
+			}
+
+			@Override
+			public void deleteAll(Collection<?> keys) {
+				deleteAlls.incrementAndGet();
+				super.deleteAll(keys);
+			}
+		});
+		cache = cacheManager.createCache(NAME + "bulk", configuration);
+		Map<Long, String> map = new HashMap<>();
+		for (long i = 0; i < 10; i++) {
+			map.put(i, Long.toString(i));
+		}
+		cache.putAll(map);
+		assertThat(writeAlls.get()).isEqualTo(1);
+		assertThat(backingStore).hasSize(10);
+		assertThat(cache.get(9L)).isEqualTo("9");
+		Set<Long> keys = new HashSet<>(map.keySet());
+		keys.remove(0L);
+		keys.add(20L);
+		cache.removeAll(keys);
+		assertThat(deleteAlls.get()).isEqualTo(1);
+		assertThat(backingStore).containsOnly(entry(0L, "0"));
+		assertThat(cache).containsExactly(new SEntry<>(0L, "0"));
+	}
+
+	@Test
+	public void shouldWriteAndEvictBeforeSynchronousListeners() throws Exception {
+		List<Boolean> storedWhenNotified = new ArrayList<>();
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setMaximumSize(1);
+		configuration.setWriteThrough(true);
+		configuration.setCacheWriterFactory(factory);
+		configuration.addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryCreatedListener<Long, String>) events -> {
+					events.forEach(e -> storedWhenNotified.add(backingStore.containsKey(e.getKey())));
+					throw new IllegalStateException("listener failed");
+				}, null, false, true));
+		configuration.addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(
+				() -> (CacheEntryRemovedListener<Long, String>) events ->
+						events.forEach(e -> storedWhenNotified.add(!backingStore.containsKey(e.getKey()))),
+				null, false, true));
+		cache = cacheManager.createCache(NAME + "listenerFails", configuration);
+		for (long i = 0; i < 3; i++) {
+			long key = i;
+			assertThatThrownBy(() -> cache.put(key, Long.toString(key))).isInstanceOf(IllegalStateException.class);
+			assertThat(backingStore).containsKey(key);
+			assertThat(cache).hasSize(1);
+		}
+		cache.remove(2L);
+		assertThat(storedWhenNotified).containsOnly(true).hasSize(4);
+	}
 }
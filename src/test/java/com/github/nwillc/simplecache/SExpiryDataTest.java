@@ -36,26 +36,65 @@ public class SExpiryDataTest {
 	@Test
 	public void testCreated() throws Exception {
 		clock.set(5L);
-		expiryData = new SExpiryData(clock::get);
-		assertThat(expiryData.created).isEqualTo(5L);
-		assertThat(expiryData.accessed).isEqualTo(SExpiryData.NEVER);
-		assertThat(expiryData.updated).isEqualTo(SExpiryData.NEVER);
+		expiryData = new SExpiryData(clock::get, new CreatedExpiryPolicy(Duration.ONE_MINUTE));
+		assertThat(expiryData.deadline).isEqualTo(5L + TimeUnit.MINUTES.toNanos(1));
+		assertThat(expiryData.expiresIn()).isEqualTo(TimeUnit.MINUTES.toNanos(1));
+	}
+
+	@Test
+	public void testDefaultNever() throws Exception {
+		assertThat(expiryData.deadline).isEqualTo(SExpiryData.NEVER);
+		assertThat(expiryData.expiresIn()).isEqualTo(SExpiryData.NEVER);
 	}
 
 	@Test
 	public void testAccess() throws Exception {
-		assertThat(expiryData.created).isEqualTo(0L);
+		expiryData = new SExpiryData(clock::get, new AccessedExpiryPolicy(Duration.ONE_MINUTE));
 		clock.set(2L);
-		assertThat(expiryData.access().accessed).isEqualTo(2L);
-		assertThat(expiryData.updated).isEqualTo(SExpiryData.NEVER);
+		assertThat(expiryData.access().deadline).isEqualTo(2L + TimeUnit.MINUTES.toNanos(1));
+		clock.set(4L);
+		assertThat(expiryData.update().deadline).isEqualTo(2L + TimeUnit.MINUTES.toNanos(1));
 	}
 
 	@Test
 	public void testUpdate() throws Exception {
-		assertThat(expiryData.created).isEqualTo(0L);
+		expiryData = new SExpiryData(clock::get, new ModifiedExpiryPolicy(Duration.ONE_MINUTE));
 		clock.set(2L);
-		assertThat(expiryData.update().updated).isEqualTo(2L);
-		assertThat(expiryData.accessed).isEqualTo(SExpiryData.NEVER);
+		assertThat(expiryData.update().deadline).isEqualTo(2L + TimeUnit.MINUTES.toNanos(1));
+		clock.set(4L);
+		assertThat(expiryData.access().deadline).isEqualTo(2L + TimeUnit.MINUTES.toNanos(1));
+	}
+
+	@Test
+	public void testZeroDuration() throws Exception {
+		expiryData = new SExpiryData(clock::get, new CreatedExpiryPolicy(Duration.ZERO));
+		assertThat(expiryData.expired()).isTrue();
+	}
+
+	@Test
+	public void testCustomPolicy() throws Exception {
+		ExpiryPolicy expiryPolicy = new ExpiryPolicy() {
+			@Override
+			public Duration getExpiryForCreation() {
+				return Duration.ONE_MINUTE;
+			}
+
+			@Override
+			public Duration getExpiryForAccess() {
+				return Duration.ZERO;
+			}
+
+			@Override
+			public Duration getExpiryForUpdate() {
+				return null;
+			}
+		};
+		expiryData = new SExpiryData(clock::get, expiryPolicy);
+		assertThat(expiryData.expired()).isFalse();
+		expiryData.update();
+		assertThat(expiryData.expired()).isFalse();
+		expiryData.access();
+		assertThat(expiryData.expired()).isTrue();
 	}
 
 	@Test
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.ModifiedExpiryPolicy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SRecordTest {
+	private AtomicLong clock;
+	private SRecord record;
+
+	@Before
+	public void setUp() throws Exception {
+		clock = new AtomicLong(0L);
+		record = new SRecord(clock::get, new ModifiedExpiryPolicy(Duration.ONE_MINUTE), "foo");
+	}
+
+	@Test
+	public void testGetValue() throws Exception {
+		assertThat(record.getValue()).isEqualTo("foo");
+	}
+
+	@Test
+	public void testUpdate() throws Exception {
+		clock.set(2L);
+		assertThat(record.update("bar")).isSameAs(record);
+		assertThat(record.getValue()).isEqualTo("bar");
+		assertThat(record.deadline).isEqualTo(2L + TimeUnit.MINUTES.toNanos(1));
+	}
+
+	@Test
+	public void shouldCountWrites() throws Exception {
+		assertThat(record.writes()).isEqualTo(0L);
+		Object value = record.getValue();
+		record.update(value);
+		assertThat(record.writes()).isEqualTo(1L);
+	}
+
+	@Test
+	public void testAge() throws Exception {
+		clock.set(5L);
+		assertThat(record.age()).isEqualTo(5L);
+		record.update("bar");
+		clock.set(7L);
+		assertThat(record.age()).isEqualTo(2L);
+	}
+
+	@Test
+	public void shouldCancelSweep() throws Exception {
+		STimingWheel wheel = new STimingWheel(clock::get, 1L);
+		STimingWheel.Timeout sweep = wheel.schedule(() -> -1L, 10L);
+		record.setSweep(sweep);
+		record.cancelSweep();
+		assertThat(sweep.isCancelled()).isTrue();
+		record.cancelSweep();
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class STimingWheelTest {
+	private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+	private AtomicLong clock;
+	private STimingWheel wheel;
+
+	@Before
+	public void setUp() throws Exception {
+		clock = new AtomicLong(0L);
+		wheel = new STimingWheel(clock::get, TICK);
+	}
+
+	@Test
+	public void shouldFireAtDeadline() throws Exception {
+		AtomicInteger fired = new AtomicInteger();
+		wheel.schedule(() -> {
+			fired.incrementAndGet();
+			return -1L;
+		}, 10 * TICK);
+		clock.set(9 * TICK);
+		wheel.advance();
+		assertThat(fired.get()).isEqualTo(0);
+		clock.set(10 * TICK);
+		wheel.advance();
+		assertThat(fired.get()).isEqualTo(1);
+		clock.set(100 * TICK);
+		wheel.advance();
+		assertThat(fired.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotFireCancelled() throws Exception {
+		AtomicInteger fired = new AtomicInteger();
+		STimingWheel.Task task = () -> {
+			fired.incrementAndGet();
+			return -1L;
+		};
+		STimingWheel.Timeout queued = wheel.schedule(task, 10 * TICK);
+		STimingWheel.Timeout placed = wheel.schedule(task, 5000 * TICK);
+		queued.cancel();
+		clock.set(TICK);
+		wheel.advance();
+		placed.cancel();
+		assertThat(queued.isCancelled()).isTrue();
+		assertThat(placed.isCancelled()).isTrue();
+		clock.set(10_000 * TICK);
+		wheel.advance();
+		assertThat(fired.get()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldCascadeFromHigherLevels() throws Exception {
+		List<Long> firedAt = new ArrayList<>();
+		long[] delays = {63, 64, 65, 4095, 4096, 5000, 300_000};
+		for (long delay : delays) {
+			wheel.schedule(() -> {
+				firedAt.add(clock.get() / TICK);
+				return -1L;
+			}, delay * TICK);
+		}
+		for (long tick = 1; tick <= 300_000; tick++) {
+			clock.set(tick * TICK);
+			wheel.advance();
+		}
+		assertThat(firedAt).containsExactly(63L, 64L, 65L, 4095L, 4096L, 5000L, 300_000L);
+	}
+
+	@Test
+	public void shouldCatchUp() throws Exception {
+		AtomicInteger fired = new AtomicInteger();
+		for (int i = 1; i <= 100; i++) {
+			wheel.schedule(() -> {
+				fired.incrementAndGet();
+				return -1L;
+			}, i * 50 * TICK);
+		}
+		clock.set(5000 * TICK);
+		wheel.advance();
+		assertThat(fired.get()).isEqualTo(100);
+	}
+
+	@Test
+	public void shouldReschedule() throws Exception {
+		AtomicInteger fired = new AtomicInteger();
+		wheel.schedule(() -> fired.incrementAndGet() < 3 ? 5 * TICK : -1L, 5 * TICK);
+		for (long tick = 1; tick <= 100; tick++) {
+			clock.set(tick * TICK);
+			wheel.advance();
+		}
+		assertThat(fired.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldSurviveFailingTask() throws Exception {
+		AtomicInteger fired = new AtomicInteger();
+		wheel.schedule(() -> {
+			throw new IllegalStateException("pop!");
+		}, TICK);
+		wheel.schedule(() -> {
+			fired.incrementAndGet();
+			return -1L;
+		}, TICK);
+		clock.set(TICK);
+		wheel.advance();
+		assertThat(fired.get()).isEqualTo(1);
+	}
+}
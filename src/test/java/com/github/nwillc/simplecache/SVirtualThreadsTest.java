@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SVirtualThreadsTest {
+
+	@Test
+	public void shouldRunTasksWhenAvailable() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		SVirtualThreads.executor().ifPresent(executor -> executor.execute(latch::countDown));
+		if (SVirtualThreads.executor().isPresent()) {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+	}
+
+	@Test
+	public void shouldBeShared() throws Exception {
+		assertThat(SVirtualThreads.executor()).isSameAs(SVirtualThreads.executor());
+	}
+}
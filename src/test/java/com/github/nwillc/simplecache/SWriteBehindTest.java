@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache;
+
+import com.github.nwillc.simplecache.integration.SWriteBehindListener;
+import com.github.nwillc.simplecache.managment.SCacheStatisticsMXBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.cache.Cache;
+import javax.cache.integration.CacheWriter;
+import javax.cache.integration.CacheWriterException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+import static org.assertj.core.data.MapEntry.entry;
+
+public class SWriteBehindTest {
+	private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+	private final Map<Long, String> backingStore = new ConcurrentHashMap<>();
+	private final List<Integer> batches = new CopyOnWriteArrayList<>();
+	private final SCacheStatisticsMXBean statistics = new SCacheStatisticsMXBean();
+	private ScheduledExecutorService scheduler;
+	private ExecutorService executor;
+	private boolean failing;
+
+	private final CacheWriter<Long, String> writer = new CacheWriter<Long, String>() {
+		@Override
+		public void write(Cache.Entry<? extends Long, ? extends String> entry) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void writeAll(Collection<Cache.Entry<? extends Long, ? extends String>> entries) {
+			if (failing) {
+				throw new CacheWriterException("pop!");
+			}
+			batches.add(entries.size());
+			entries.forEach(e -> backingStore.put(e.getKey(), e.getValue()));
+		}
+
+		@Override
+		public void delete(Object key) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void deleteAll(Collection<?> keys) {
+			if (failing) {
+				throw new CacheWriterException("pop!");
+			}
+			batches.add(keys.size());
+			keys.forEach(backingStore::remove);
+		}
+	};
+
+	@Before
+	public void setUp() throws Exception {
+		scheduler = Executors.newSingleThreadScheduledExecutor();
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		scheduler.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldCollapseWritesToKey() throws Exception {
+		SWriteBehind<Long, String> writeBehind = new SWriteBehind<>(writer, 100, HOUR, scheduler, executor,
+				Optional.of(statistics), Optional.empty());
+		writeBehind.write(0L, "0");
+		writeBehind.write(0L, "1");
+		writeBehind.write(1L, "1");
+		writeBehind.delete(1L);
+		assertThat(backingStore).isEmpty();
+		writeBehind.flush();
+		assertThat(backingStore).containsOnly(entry(0L, "1"));
+		assertThat(batches).containsExactly(1, 1);
+		assertThat(writeBehind.size()).isEqualTo(0);
+		assertThat(statistics.getWriteThrough()).isEqualTo(1L);
+		assertThat(statistics.getRemoveThrough()).isEqualTo(1L);
+	}
+
+	@Test
+	public void shouldFlushInBatches() throws Exception {
+		SWriteBehind<Long, String> writeBehind = new SWriteBehind<>(writer, 2, HOUR, scheduler, executor,
+				Optional.empty(), Optional.empty());
+		scheduler.execute(() -> {
+			for (long i = 0; i < 5; i++) {
+				writeBehind.write(i, Long.toString(i));
+			}
+		});
+		CountDownLatch flushed = new CountDownLatch(1);
+		scheduler.execute(flushed::countDown);
+		assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+		writeBehind.flush();
+		assertThat(backingStore).hasSize(5);
+		assertThat(batches).allMatch(size -> size <= 2);
+	}
+
+	@Test
+	public void shouldFlushAfterDelay() throws Exception {
+		SWriteBehind<Long, String> writeBehind = new SWriteBehind<>(writer, 100, TimeUnit.MILLISECONDS.toNanos(10),
+				scheduler, executor, Optional.empty(), Optional.empty());
+		writeBehind.write(0L, "0");
+		long deadline = System.currentTimeMillis() + 5000;
+		while (backingStore.isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(backingStore).containsOnly(entry(0L, "0"));
+	}
+
+	@Test
+	public void shouldReportFailures() throws Exception {
+		List<Object> failed = new ArrayList<>();
+		SWriteBehindListener<Long, String> listener = new SWriteBehindListener<Long, String>() {
+			@Override
+			public void onWriteFailure(Collection<Cache.Entry<? extends Long, ? extends String>> entries, Exception exception) {
+				entries.forEach(e -> failed.add(e.getKey()));
+			}
+
+			@Override
+			public void onDeleteFailure(Collection<?> keys, Exception exception) {
+				failed.addAll(keys);
+			}
+		};
+		SWriteBehind<Long, String> writeBehind = new SWriteBehind<>(writer, 100, HOUR, scheduler, executor,
+				Optional.of(statistics), Optional.of(listener));
+		failing = true;
+		writeBehind.write(0L, "0");
+		writeBehind.delete(1L);
+		writeBehind.flush();
+		assertThat(failed).containsExactlyInAnyOrder(0L, 1L);
+		assertThat(statistics.getWriteBehindFailures()).isEqualTo(2L);
+	}
+
+	@Test
+	public void shouldFlushOnClose() throws Exception {
+		SWriteBehind<Long, String> writeBehind = new SWriteBehind<>(writer, 100, HOUR, scheduler, executor,
+				Optional.empty(), Optional.empty());
+		writeBehind.write(0L, "0");
+		writeBehind.close();
+		assertThat(backingStore).containsOnly(entry(0L, "0"));
+	}
+
+	@Test
+	public void shouldNotHoldSchedulerWhileWriting() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger writing = new AtomicInteger();
+		AtomicInteger overlapping = new AtomicInteger();
+		CacheWriter<Long, String> slow = new CacheWriter<Long, String>() {
+			@Override
+			public void write(Cache.Entry<? extends Long, ? extends String> entry) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void writeAll(Collection<Cache.Entry<? extends Long, ? extends String>> entries) {
+				if (writing.incrementAndGet() > 1) {
+					overlapping.incrementAndGet();
+				}
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				writing.decrementAndGet();
+			}
+
+			@Override
+			public void delete(Object key) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void deleteAll(Collection<?> keys) {
+				throw new UnsupportedOperationException();
+			}
+		};
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			SWriteBehind<Long, String> writeBehind = new SWriteBehind<>(slow, 1, TimeUnit.MILLISECONDS.toNanos(5),
+					scheduler, pool, Optional.empty(), Optional.empty());
+			for (long i = 0; i < 10; i++) {
+				writeBehind.write(i, Long.toString(i));
+			}
+			Thread.sleep(50);
+			assertThat(scheduler.submit(() -> true).get(1, TimeUnit.SECONDS)).isTrue();
+			release.countDown();
+			writeBehind.close();
+			assertThat(overlapping.get()).isEqualTo(0);
+		} finally {
+			release.countDown();
+			pool.shutdownNow();
+		}
+	}
+}
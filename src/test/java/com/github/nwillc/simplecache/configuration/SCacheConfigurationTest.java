@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.configuration;
+
+import com.github.nwillc.simplecache.eviction.SLruEvictionPolicy;
+import com.github.nwillc.simplecache.serialization.SJavaSerializer;
+import org.junit.Test;
+
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.Duration;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SCacheConfigurationTest {
+
+	@Test
+	public void shouldDefaultUnbounded() throws Exception {
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		assertThat(configuration.getMaximumSize()).isEqualTo(SCacheConfiguration.UNBOUNDED);
+		assertThat(configuration.isBounded()).isFalse();
+		assertThat(configuration.getEvictionPolicyFactory()).isNull();
+		assertThat(configuration.getSerializerFactory()).isNull();
+		assertThat(configuration.getImmutableTypes()).isEmpty();
+		assertThat(configuration.isStoreSerialized()).isFalse();
+		assertThat(configuration.getExecutorFactory()).isNull();
+		assertThat(configuration.getLoadBatchSize()).isEqualTo(SCacheConfiguration.DEFAULT_LOAD_BATCH_SIZE);
+		assertThat(configuration.getRefreshAfterWrite()).isNull();
+		assertThat(configuration.isWriteBehind()).isFalse();
+		assertThat(configuration.getWriteBehindDelay()).isEqualTo(SCacheConfiguration.DEFAULT_WRITE_BEHIND_DELAY);
+		assertThat(configuration.getWriteBehindListenerFactory()).isNull();
+		assertThat(configuration.getEventQueueCapacity()).isEqualTo(SCacheConfiguration.DEFAULT_EVENT_QUEUE_CAPACITY);
+		assertThat(configuration.getEventOverflow()).isEqualTo(SEventOverflow.BLOCK);
+		assertThat(configuration.getEventBlockTimeout()).isEqualTo(SCacheConfiguration.DEFAULT_EVENT_BLOCK_TIMEOUT);
+		assertThat(configuration.isCoalesceEvents()).isFalse();
+		assertThat(configuration.getListenerExecutorFactory()).isNull();
+		assertThat(configuration.isListenerVirtualThreads()).isFalse();
+		assertThat(configuration.getEventPartitions()).isEqualTo(1);
+	}
+
+	@Test
+	public void testMaximumSize() throws Exception {
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<Long, String>().setMaximumSize(10);
+		assertThat(configuration.getMaximumSize()).isEqualTo(10L);
+		assertThat(configuration.isBounded()).isTrue();
+	}
+
+	@Test
+	public void testBadMaximumSize() throws Exception {
+		assertThatThrownBy(() -> new SCacheConfiguration<Long, String>().setMaximumSize(-5)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testBadLoadBatchSize() throws Exception {
+		assertThatThrownBy(() -> new SCacheConfiguration<Long, String>().setLoadBatchSize(0)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testBadWriteBehindSettings() throws Exception {
+		assertThatThrownBy(() -> new SCacheConfiguration<Long, String>().setWriteBehindBatchSize(0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new SCacheConfiguration<Long, String>().setWriteBehindDelay(Duration.ETERNAL)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testBadEventQueueSettings() throws Exception {
+		assertThatThrownBy(() -> new SCacheConfiguration<Long, String>().setEventQueueCapacity(0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new SCacheConfiguration<Long, String>().setEventOverflow(null)).isInstanceOf(NullPointerException.class);
+		assertThatThrownBy(() -> new SCacheConfiguration<Long, String>().setEventBlockTimeout(Duration.ETERNAL)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new SCacheConfiguration<Long, String>().setEventPartitions(0)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void shouldCopy() throws Exception {
+		SCacheConfiguration<Long, String> configuration = new SCacheConfiguration<>();
+		configuration.setMaximumSize(10);
+		configuration.setStatisticsEnabled(true);
+		configuration.setEvictionPolicyFactory(SLruEvictionPolicy::new);
+		configuration.setSerializerFactory(SJavaSerializer::new);
+		configuration.addImmutableType(StringBuilder.class);
+		configuration.setStoreSerialized(true);
+		configuration.setExecutorFactory(() -> Runnable::run);
+		configuration.setLoadBatchSize(10);
+		configuration.setRefreshAfterWrite(Duration.ONE_MINUTE);
+		configuration.setWriteBehind(true);
+		configuration.setWriteBehindBatchSize(5);
+		configuration.setWriteBehindDelay(Duration.ONE_HOUR);
+		configuration.setEventQueueCapacity(16);
+		configuration.setEventOverflow(SEventOverflow.DROP);
+		configuration.setEventBlockTimeout(Duration.ONE_MINUTE);
+		configuration.setCoalesceEvents(true);
+		configuration.setListenerExecutorFactory(() -> Runnable::run);
+		configuration.setListenerVirtualThreads(true);
+		configuration.setEventPartitions(4);
+		SCacheConfiguration<Long, String> copy = new SCacheConfiguration<>(configuration);
+		assertThat(copy.getMaximumSize()).isEqualTo(10L);
+		assertThat(copy.getEvictionPolicyFactory()).isSameAs(configuration.getEvictionPolicyFactory());
+		assertThat(copy.getSerializerFactory()).isSameAs(configuration.getSerializerFactory());
+		assertThat(copy.getImmutableTypes()).containsExactly(StringBuilder.class);
+		assertThat(copy.isStoreSerialized()).isTrue();
+		assertThat(copy.getExecutorFactory()).isSameAs(configuration.getExecutorFactory());
+		assertThat(copy.getLoadBatchSize()).isEqualTo(10);
+		assertThat(copy.getRefreshAfterWrite()).isEqualTo(Duration.ONE_MINUTE);
+		assertThat(copy.isWriteBehind()).isTrue();
+		assertThat(copy.getWriteBehindBatchSize()).isEqualTo(5);
+		assertThat(copy.getWriteBehindDelay()).isEqualTo(Duration.ONE_HOUR);
+		assertThat(copy.getEventQueueCapacity()).isEqualTo(16);
+		assertThat(copy.getEventOverflow()).isEqualTo(SEventOverflow.DROP);
+		assertThat(copy.getEventBlockTimeout()).isEqualTo(Duration.ONE_MINUTE);
+		assertThat(copy.isCoalesceEvents()).isTrue();
+		assertThat(copy.getListenerExecutorFactory()).isSameAs(configuration.getListenerExecutorFactory());
+		assertThat(copy.isListenerVirtualThreads()).isTrue();
+		assertThat(copy.getEventPartitions()).isEqualTo(4);
+		assertThat(copy.isStatisticsEnabled()).isTrue();
+	}
+
+	@Test
+	public void shouldCopyMutableConfiguration() throws Exception {
+		MutableConfiguration<Long, String> configuration = new MutableConfiguration<>();
+		configuration.setReadThrough(true);
+		SCacheConfiguration<Long, String> copy = new SCacheConfiguration<>(configuration);
+		assertThat(copy.isReadThrough()).isTrue();
+		assertThat(copy.isBounded()).isFalse();
+	}
+}
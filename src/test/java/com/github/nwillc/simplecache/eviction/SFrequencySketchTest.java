@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SFrequencySketchTest {
+
+	@Test
+	public void testUnseen() throws Exception {
+		SFrequencySketch<Long> sketch = new SFrequencySketch<>(100);
+		assertThat(sketch.frequency(0L)).isEqualTo(0);
+	}
+
+	@Test
+	public void testIncrement() throws Exception {
+		SFrequencySketch<Long> sketch = new SFrequencySketch<>(100);
+		sketch.increment(0L);
+		sketch.increment(0L);
+		sketch.increment(0L);
+		assertThat(sketch.frequency(0L)).isEqualTo(3);
+	}
+
+	@Test
+	public void testSaturates() throws Exception {
+		SFrequencySketch<Long> sketch = new SFrequencySketch<>(100);
+		for (int i = 0; i < 100; i++) {
+			sketch.increment(0L);
+		}
+		assertThat(sketch.frequency(0L)).isEqualTo(15);
+	}
+
+	@Test
+	public void testAges() throws Exception {
+		SFrequencySketch<Long> sketch = new SFrequencySketch<>(8);
+		for (int i = 0; i < 10; i++) {
+			sketch.increment(0L);
+		}
+		for (long i = 1; i < 80; i++) {
+			sketch.increment(i);
+		}
+		assertThat(sketch.frequency(0L)).isLessThan(10);
+	}
+}
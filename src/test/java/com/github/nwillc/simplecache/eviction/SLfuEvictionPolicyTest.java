@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SLfuEvictionPolicyTest {
+	private SEvictionPolicy<Long> policy;
+
+	@Before
+	public void setUp() throws Exception {
+		policy = new SLfuEvictionPolicy<>();
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		assertThat(policy.victim()).isNull();
+	}
+
+	@Test
+	public void testLeastFrequentlyUsed() throws Exception {
+		policy.onAdd(0L);
+		policy.onAdd(1L);
+		policy.onAdd(2L);
+		policy.onAccess(0L);
+		policy.onAccess(0L);
+		policy.onAccess(2L);
+		assertThat(policy.victim()).isEqualTo(1L);
+		policy.onAccess(1L);
+		policy.onAccess(1L);
+		assertThat(policy.victim()).isEqualTo(2L);
+	}
+
+	@Test
+	public void testOldestOnTie() throws Exception {
+		policy.onAdd(0L);
+		policy.onAdd(1L);
+		assertThat(policy.victim()).isEqualTo(0L);
+	}
+
+	@Test
+	public void testAccessUnknown() throws Exception {
+		policy.onAccess(0L);
+		assertThat(policy.victim()).isNull();
+	}
+
+	@Test
+	public void testRemoveAndClear() throws Exception {
+		policy.onAdd(0L);
+		policy.onAdd(1L);
+		policy.onRemove(0L);
+		assertThat(policy.victim()).isEqualTo(1L);
+		policy.clear();
+		assertThat(policy.victim()).isNull();
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SSampledEvictionPolicyTest {
+
+	@Test
+	public void testEmpty() throws Exception {
+		assertThat(new SSampledEvictionPolicy<Long>().victim()).isNull();
+	}
+
+	@Test
+	public void testBadSampleSize() throws Exception {
+		assertThatThrownBy(() -> new SSampledEvictionPolicy<Long>(0)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testSampledVictimIsKnown() throws Exception {
+		SEvictionPolicy<Long> policy = new SSampledEvictionPolicy<>();
+		for (long key = 0; key < 10; key++) {
+			policy.onAdd(key);
+		}
+		policy.onRemove(3L);
+		policy.onRemove(9L);
+		for (int i = 0; i < 100; i++) {
+			assertThat(policy.victim()).isBetween(0L, 8L).isNotEqualTo(3L);
+		}
+	}
+
+	@Test
+	public void testOldestOfSample() throws Exception {
+		SEvictionPolicy<Long> policy = new SSampledEvictionPolicy<>(50);
+		policy.onAdd(0L);
+		policy.onAdd(1L);
+		policy.onAccess(0L);
+		assertThat(policy.victim()).isEqualTo(1L);
+	}
+
+	@Test
+	public void testClear() throws Exception {
+		SEvictionPolicy<Long> policy = new SSampledEvictionPolicy<>();
+		policy.onAdd(0L);
+		policy.clear();
+		assertThat(policy.victim()).isNull();
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.eviction;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class STinyLfuEvictionPolicyTest {
+	private STinyLfuEvictionPolicy<Long> policy;
+
+	@Before
+	public void setUp() throws Exception {
+		policy = new STinyLfuEvictionPolicy<>(100);
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		assertThat(policy.victim()).isNull();
+	}
+
+	@Test
+	public void testNewcomerRejectedWithoutHistory() throws Exception {
+		policy.onAdd(0L);
+		policy.onAdd(1L);
+		policy.onAdd(2L);
+		assertThat(policy.victim()).isEqualTo(1L);
+	}
+
+	@Test
+	public void testNewcomerAdmittedWhenFrequent() throws Exception {
+		policy.onAdd(0L);
+		policy.onAdd(1L);
+		policy.onAccess(1L);
+		policy.onAdd(2L);
+		assertThat(policy.victim()).isEqualTo(0L);
+	}
+
+	@Test
+	public void testRemove() throws Exception {
+		policy.onAdd(0L);
+		policy.onAdd(1L);
+		policy.onRemove(0L);
+		assertThat(policy.victim()).isEqualTo(1L);
+		policy.onRemove(1L);
+		assertThat(policy.victim()).isNull();
+	}
+
+	@Test
+	public void testFrequentKeySurvivesScan() throws Exception {
+		for (long key = 0; key < 100; key++) {
+			policy.onAdd(key);
+		}
+		for (int i = 0; i < 10; i++) {
+			policy.onAccess(0L);
+		}
+		for (long key = 100; key < 1000; key++) {
+			policy.onAdd(key);
+			Long victim = policy.victim();
+			assertThat(victim).isNotEqualTo(0L);
+			policy.onRemove(victim);
+		}
+	}
+
+	@Test
+	public void testClear() throws Exception {
+		policy.onAdd(0L);
+		policy.clear();
+		assertThat(policy.victim()).isNull();
+	}
+}
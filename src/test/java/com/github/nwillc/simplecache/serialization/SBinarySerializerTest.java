@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.serialization;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SBinarySerializerTest {
+	private SSerializer serializer;
+
+	@Before
+	public void setUp() throws Exception {
+		serializer = new SBinarySerializer();
+	}
+
+	@Test
+	public void shouldRoundTripCommonTypes() throws Exception {
+		List<Object> values = Arrays.asList(null, "", "foo \u00e9\u4e2d", 42, -1L, Long.MIN_VALUE, 1.5d, 2.5f,
+				(short) -7, (byte) 3, 'x', true, false);
+		for (Object value : values) {
+			assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+			assertThat(serializer.copy(value)).isEqualTo(value);
+		}
+	}
+
+	@Test
+	public void shouldEncodeCompactly() throws Exception {
+		assertThat(serializer.serialize(42L)).hasSize(9);
+		assertThat(serializer.serialize("foo")).hasSize(8);
+	}
+
+	@Test
+	public void shouldCopyByteArrays() throws Exception {
+		byte[] bytes = {1, 2, 3};
+		byte[] copy = serializer.copy(bytes);
+		assertThat(copy).isNotSameAs(bytes).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	public void shouldFallBackToJavaSerialization() throws Exception {
+		List<BigDecimal> list = new ArrayList<>();
+		list.add(BigDecimal.TEN);
+		List<BigDecimal> copy = serializer.copy(list);
+		assertThat(copy).isNotSameAs(list).isEqualTo(list);
+		assertThat(serializer.deserialize(serializer.serialize(list))).isEqualTo(list);
+	}
+
+	@Test
+	public void shouldCopyLargeValues() throws Exception {
+		char[] chars = new char[100_000];
+		Arrays.fill(chars, 'a');
+		String large = new String(chars);
+		assertThat(serializer.copy(large)).isEqualTo(large);
+		assertThat(serializer.copy("small")).isEqualTo("small");
+	}
+
+	@Test
+	public void shouldRejectUnserializable() throws Exception {
+		assertThatThrownBy(() -> serializer.copy(new Object())).isInstanceOf(NotSerializableException.class);
+	}
+
+	@Test
+	public void shouldRejectUnknownTag() throws Exception {
+		assertThatThrownBy(() -> serializer.deserialize(new byte[]{99})).isInstanceOf(StreamCorruptedException.class);
+	}
+}
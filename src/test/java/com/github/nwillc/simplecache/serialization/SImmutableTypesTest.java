@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.serialization;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SImmutableTypesTest {
+
+	@Test
+	public void shouldKnowBuiltIns() throws Exception {
+		SImmutableTypes types = new SImmutableTypes(Collections.emptySet());
+		assertThat(types.isImmutable(null)).isTrue();
+		assertThat(types.isImmutable("foo")).isTrue();
+		assertThat(types.isImmutable(1L)).isTrue();
+		assertThat(types.isImmutable(UUID.randomUUID())).isTrue();
+		assertThat(types.isImmutable(LocalDate.now())).isTrue();
+		assertThat(types.isImmutable(BigInteger.ONE)).isTrue();
+		assertThat(types.isImmutable(TimeUnit.SECONDS)).isTrue();
+		assertThat(types.isImmutable(new StringBuilder())).isFalse();
+		assertThat(types.isImmutable(new ArrayList<>())).isFalse();
+	}
+
+	@Test
+	public void shouldMatchExactly() throws Exception {
+		SImmutableTypes types = new SImmutableTypes(Collections.emptySet());
+		assertThat(types.isImmutable(new BigInteger("1") {})).isFalse();
+	}
+
+	@Test
+	public void shouldAddTypes() throws Exception {
+		SImmutableTypes types = new SImmutableTypes(Collections.singleton(StringBuilder.class));
+		assertThat(types.isImmutable(new StringBuilder())).isTrue();
+	}
+}
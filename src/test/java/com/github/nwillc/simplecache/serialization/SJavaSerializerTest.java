@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 nwillc@gmail.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.github.nwillc.simplecache.serialization;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SJavaSerializerTest {
+	private SSerializer serializer;
+
+	@Before
+	public void setUp() throws Exception {
+		serializer = new SJavaSerializer();
+	}
+
+	@Test
+	public void shouldRoundTrip() throws Exception {
+		List<String> list = new ArrayList<>();
+		list.add("foo");
+		assertThat(serializer.deserialize(serializer.serialize(list))).isEqualTo(list);
+		assertThat(serializer.deserialize(serializer.serialize(null))).isNull();
+	}
+
+	@Test
+	public void shouldCopy() throws Exception {
+		StringBuilder builder = new StringBuilder("foo");
+		StringBuilder copy = serializer.copy(builder);
+		assertThat(copy).isNotSameAs(builder);
+		assertThat(copy.toString()).isEqualTo("foo");
+		assertThat(serializer.copy(copy).toString()).isEqualTo("foo");
+	}
+
+	@Test
+	public void shouldResolveClassesPerContextLoader() throws Exception {
+		URL location = Value.class.getProtectionDomain().getCodeSource().getLocation();
+		ClassLoader original = Thread.currentThread().getContextClassLoader();
+		try (URLClassLoader isolated = new URLClassLoader(new URL[]{location}, null)) {
+			Class<?> isolatedType = isolated.loadClass(Value.class.getName());
+			assertThat(isolatedType).isNotSameAs(Value.class);
+			byte[] bytes = serializer.serialize(new Value());
+			assertThat(serializer.deserialize(bytes)).isInstanceOf(Value.class);
+			Thread.currentThread().setContextClassLoader(isolated);
+			assertThat(serializer.deserialize(bytes).getClass()).isSameAs(isolatedType);
+			Thread.currentThread().setContextClassLoader(original);
+			assertThat(serializer.deserialize(bytes)).isInstanceOf(Value.class);
+		} finally {
+			Thread.currentThread().setContextClassLoader(original);
+		}
+	}
+
+	@Test
+	public void shouldOnlyRememberClassesOfTheContextLoader() throws Exception {
+		SJavaSerializer javaSerializer = new SJavaSerializer();
+		ClassLoader original = Thread.currentThread().getContextClassLoader();
+		try (URLClassLoader empty = new URLClassLoader(new URL[0], null)) {
+			byte[] bytes = javaSerializer.serialize(new Value());
+			Thread.currentThread().setContextClassLoader(empty);
+			assertThat(javaSerializer.deserialize(bytes)).isInstanceOf(Value.class);
+			assertThat(javaSerializer.isRemembered(empty, Value.class.getName())).isFalse();
+			Thread.currentThread().setContextClassLoader(original);
+			assertThat(javaSerializer.deserialize(bytes)).isInstanceOf(Value.class);
+			assertThat(javaSerializer.isRemembered(original, Value.class.getName())).isTrue();
+		} finally {
+			Thread.currentThread().setContextClassLoader(original);
+		}
+	}
+
+	public static class Value implements Serializable {
+		private static final long serialVersionUID = 1L;
+	}
+}